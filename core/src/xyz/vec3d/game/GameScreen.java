@@ -8,19 +8,20 @@ import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TiledMapRenderer;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.entities.Enemy;
+import xyz.vec3d.game.entities.EntityPools;
 import xyz.vec3d.game.entities.Player;
 import xyz.vec3d.game.entities.PocketRogueEntity;
 import xyz.vec3d.game.entities.WorldItem;
+import xyz.vec3d.game.entities.components.SteeringComponent;
 import xyz.vec3d.game.entities.listeners.EntityTextureListener;
+import xyz.vec3d.game.gfx.StaticTiledMapRenderer;
 import xyz.vec3d.game.gui.GuiDebug;
 import xyz.vec3d.game.gui.HotBarDisplay;
 import xyz.vec3d.game.gui.OSTouchpad;
@@ -36,11 +37,18 @@ import xyz.vec3d.game.model.Item;
 import xyz.vec3d.game.model.Item.ItemType;
 import xyz.vec3d.game.model.ItemStack;
 import xyz.vec3d.game.model.combat.CombatSystem;
+import xyz.vec3d.game.model.map.TileCollisionMap;
 import xyz.vec3d.game.systems.CollisionSystem;
+import xyz.vec3d.game.systems.DeathSweepSystem;
+import xyz.vec3d.game.systems.DebugRenderSystem;
+import xyz.vec3d.game.systems.FiringCooldownSystem;
+import xyz.vec3d.game.systems.LifetimeSystem;
 import xyz.vec3d.game.systems.MovementSystem;
+import xyz.vec3d.game.systems.NavigationSystem;
 import xyz.vec3d.game.systems.RenderingSystem;
-import xyz.vec3d.game.systems.UpdateSystem;
+import xyz.vec3d.game.systems.SpatialIndexSystem;
 import xyz.vec3d.game.utils.Logger;
+import xyz.vec3d.game.utils.Profiler;
 import xyz.vec3d.game.utils.Utils;
 
 /**
@@ -69,9 +77,14 @@ public class GameScreen extends PocketRogueScreen {
     private Stage uiStage;
 
     /**
-     * The {@link TiledMapRenderer} responsible for drawing the world's map.
+     * The {@link StaticTiledMapRenderer} responsible for drawing the world's map.
      */
-    private TiledMapRenderer tiledMapRenderer;
+    private StaticTiledMapRenderer tiledMapRenderer;
+
+    /**
+     * The solid tiles of the world's map, compiled when the map is loaded.
+     */
+    private TileCollisionMap tileCollisionMap;
 
     /**
      * The {@link OrthographicCamera} responsible for looking into the world map.
@@ -92,7 +105,6 @@ public class GameScreen extends PocketRogueScreen {
      * {@link RenderingSystem} to be used for drawing.
      */
     private SpriteBatch spriteBatch;
-    private ShapeRenderer shapeRenderer;
 
     /**
      * The {@link Skin} used for UI stuff.
@@ -136,6 +148,33 @@ public class GameScreen extends PocketRogueScreen {
 
     private HotBarDisplay hotBarDisplay;
 
+    /**
+     * The {@link RenderingSystem} is drawn once per frame rather than being
+     * updated with the rest of the engine.
+     */
+    private RenderingSystem renderingSystem;
+
+    /**
+     * Draws hit boxes and other debug shapes after the entities.
+     */
+    private DebugRenderSystem debugRenderSystem;
+
+    /**
+     * Removes the entities that died during a tick once the tick is over.
+     */
+    private DeathSweepSystem deathSweepSystem;
+
+    /**
+     * Frame time that hasn't been simulated yet.
+     */
+    private float accumulator;
+
+    /**
+     * Longest frame time that will be simulated. Stops the game from trying to
+     * catch up on a huge number of steps after a stall.
+     */
+    private static final float MAX_FRAME_TIME = 0.25f;
+
     /**
      * Creates a new {@link GameScreen} object and sets up the stage, engine and
      * any other initialization needed.
@@ -147,8 +186,6 @@ public class GameScreen extends PocketRogueScreen {
         this.engine = new Engine();
         this.uiStage = new Stage();
         this.spriteBatch = new SpriteBatch();
-        this.shapeRenderer = new ShapeRenderer();
-        this.shapeRenderer.setAutoShapeType(true);
         setUpGui();
         setUpEngine();
     }
@@ -161,7 +198,7 @@ public class GameScreen extends PocketRogueScreen {
     private void setUpGui() {
         //Create the stage and viewport for the UI.
         uiStage = new Stage(new StretchViewport(Settings.UI_WIDTH, Settings.UI_HEIGHT));
-        skin = PocketRogue.getAsset("uiskin.json");
+        skin = AssetRegistry.UI_SKIN.get();
 
         //Set up input multiplexer.
         rogueInputProcessor = new RogueInputProcessor(this);
@@ -223,10 +260,11 @@ public class GameScreen extends PocketRogueScreen {
      */
     private void setUpEngine() {
         //Create camera and load map and bind them together.
-        TiledMap map = PocketRogue.getAsset("map.tmx");
+        TiledMap map = AssetRegistry.MAP.get();
         Settings.MAX_WORLD_WIDTH = map.getProperties().get("width", Integer.class);
         Settings.MAX_WORLD_HEIGHT = map.getProperties().get("height", Integer.class);
-        tiledMapRenderer = new OrthogonalTiledMapRenderer(map, Settings.WORLD_SCALE);
+        tiledMapRenderer = new StaticTiledMapRenderer(map, Settings.WORLD_SCALE);
+        tileCollisionMap = TileCollisionMap.compile(map);
         worldCamera = new OrthographicCamera();
         worldCamera.setToOrtho(false, 25, 14);
         worldCamera.update();
@@ -237,16 +275,25 @@ public class GameScreen extends PocketRogueScreen {
 
         //Create engine instance, attach listeners and systems.
         engine = new Engine();
-        UpdateSystem updateSystem = new UpdateSystem();
-        RenderingSystem renderingSystem = new RenderingSystem(spriteBatch, shapeRenderer);
-        MovementSystem movementSystem = new MovementSystem();
-        engine.addSystem(updateSystem);
-        engine.addSystem(new CollisionSystem());
+        renderingSystem = new RenderingSystem(spriteBatch, worldCamera);
+        renderingSystem.setProcessing(false);
+        debugRenderSystem = new DebugRenderSystem(worldCamera);
+        deathSweepSystem = new DeathSweepSystem();
+        MovementSystem movementSystem = new MovementSystem(tileCollisionMap);
+        NavigationSystem navigationSystem = new NavigationSystem(tileCollisionMap);
+        engine.addSystem(deathSweepSystem);
+        engine.addSystem(new LifetimeSystem());
+        engine.addSystem(new FiringCooldownSystem());
+        engine.addSystem(navigationSystem);
         engine.addSystem(movementSystem);
+        engine.addSystem(new SpatialIndexSystem());
+        engine.addSystem(new CollisionSystem(pocketRogue.getParallelExecutor()));
         engine.addSystem(renderingSystem);
+        engine.addSystem(debugRenderSystem);
         engine.addEntityListener(new EntityTextureListener());
         player = new Player(10, 10);
         engine.addEntity(player);
+        navigationSystem.setTarget(player);
         notifyMessageReceivers(new Message(Message.MessageType.PLAYER_INFO_MAX_CHANGED, 100, 100));
         setUpCore(engine);
     }
@@ -257,6 +304,7 @@ public class GameScreen extends PocketRogueScreen {
     private void setUpCore(Engine engine) {
         combatSystem = new CombatSystem(engine, player);
         waveManager = new WaveManager(this, engine);
+        deathSweepSystem.addListener(waveManager);
         waveManager.startWave();
         hotBarDisplay.setPlayer(player);
     }
@@ -297,31 +345,50 @@ public class GameScreen extends PocketRogueScreen {
     /**
      * Called when the screen should render itself.
      *
-     * Renders the TiledMap, updates the UI stage, draws the UI stage then finally
-     * updates the engine.
+     * Runs as many fixed simulation steps as the elapsed time allows, then
+     * renders the TiledMap and the entities interpolated between the last two
+     * steps, then updates and draws the UI stage.
      *
      * @param delta The time in seconds since the last render.
      */
     @Override
     public void render(float delta) {
+        long frameStart = Profiler.start();
+        rogueInputProcessor.update();
+        float step = 1f / Settings.SIMULATION_HZ;
+        accumulator += Math.min(delta, MAX_FRAME_TIME);
+        while (accumulator >= step) {
+            engine.update(step);
+            long start = Profiler.start();
+            combatSystem.update(step);
+            Profiler.stop(Profiler.COMBAT, start);
+            start = Profiler.start();
+            deathSweepSystem.flush();
+            Profiler.stop(Profiler.DEATH_SWEEP, start);
+            accumulator -= step;
+        }
+        float alpha = accumulator / step;
+
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        Utils.centerCamera(worldCamera, player, mapWidth, mapHeight, alpha);
         worldCamera.update();
 
-        Utils.centerCamera(worldCamera, player, mapWidth, mapHeight);
-
+        long start = Profiler.start();
         tiledMapRenderer.setView(worldCamera);
         tiledMapRenderer.render();
+        Profiler.stop(Profiler.MAP, start);
 
+        start = Profiler.start();
         spriteBatch.setProjectionMatrix(worldCamera.combined);
-        shapeRenderer.setProjectionMatrix(worldCamera.combined);
         spriteBatch.begin();
-        shapeRenderer.begin();
-        rogueInputProcessor.update();
-        engine.update(delta);
-        combatSystem.update(delta);
+        renderingSystem.render(delta, alpha);
         spriteBatch.end();
-        shapeRenderer.end();
+        Profiler.stop(Profiler.ENTITIES, start);
+        start = Profiler.start();
+        debugRenderSystem.render();
+        Profiler.stop(Profiler.DEBUG_SHAPES, start);
 
+        start = Profiler.start();
         uiStage.act(delta);
         uiStage.draw();
 
@@ -333,6 +400,9 @@ public class GameScreen extends PocketRogueScreen {
         if (renderDebugOverlay) {
             debugOverlay.draw();
         }
+        Profiler.stop(Profiler.UI, start);
+        Profiler.stop(Profiler.FRAME, frameStart);
+        Profiler.endFrame();
     }
 
     /**
@@ -379,7 +449,9 @@ public class GameScreen extends PocketRogueScreen {
      */
     @Override
     public void dispose() {
-
+        tiledMapRenderer.dispose();
+        debugRenderSystem.dispose();
+        EntityPools.clear();
     }
 
     @Override
@@ -465,7 +537,7 @@ public class GameScreen extends PocketRogueScreen {
                                 x = Float.valueOf(args[1]);
                                 y = Float.valueOf(args[2]);
                             }
-                            Enemy enemy = new Enemy(entityId, x, y);
+                            Enemy enemy = EntityPools.obtainEnemy(entityId, x, y);
                             engine.addEntity(enemy);
                         }
                         break;
@@ -486,7 +558,7 @@ public class GameScreen extends PocketRogueScreen {
                                 quantity = Integer.valueOf(args[1]);
                             }
                             ItemStack stack = new ItemStack(new Item(itemId, ItemType.valueOf(slot)), quantity);
-                            WorldItem worldItem = new WorldItem(stack,
+                            WorldItem worldItem = EntityPools.obtainWorldItem(stack,
                                     player.getPosition().x + 1, player.getPosition().y + 1);
                             engine.addEntity(worldItem);
                         }
@@ -511,6 +583,43 @@ public class GameScreen extends PocketRogueScreen {
                     case "endwave":
                         waveManager.endWave();
                         break;
+                    case "enemytarget":
+                        //Send every enemy to a tile, or back after the player.
+                        for (Entity entity : engine.getEntities()) {
+                            SteeringComponent steering = entity.getComponent(SteeringComponent.class);
+                            if (steering == null) {
+                                continue;
+                            }
+                            if (args.length >= 2) {
+                                steering.setTarget(Integer.valueOf(args[0]), Integer.valueOf(args[1]));
+                            } else {
+                                steering.clearTarget();
+                            }
+                        }
+                        break;
+                    case "tickrate":
+                        if (console.checkNumArgs(args, 1)) {
+                            Settings.SIMULATION_HZ = Math.max(1, Integer.valueOf(args[0]));
+                            console.log("Simulation running at " + Settings.SIMULATION_HZ + " Hz.", LogMessage.LogLevel.NORMAL);
+                        }
+                        break;
+                    case "profile":
+                        if (Settings.PROFILING) {
+                            logProfile();
+                        } else {
+                            Profiler.reset();
+                        }
+                        Settings.PROFILING = !Settings.PROFILING;
+                        console.log("Profiling " + (Settings.PROFILING ? "enabled." : "disabled."), LogMessage.LogLevel.NORMAL);
+                        break;
+                    case "parallelcollision":
+                        if (pocketRogue.getParallelExecutor() == null) {
+                            console.log("Parallel collision isn't supported on this platform.", LogMessage.LogLevel.ERROR);
+                            break;
+                        }
+                        Settings.PARALLEL_COLLISION = !Settings.PARALLEL_COLLISION;
+                        console.log("Parallel collision " + (Settings.PARALLEL_COLLISION ? "enabled." : "disabled."), LogMessage.LogLevel.NORMAL);
+                        break;
                     default:
                         console.log("Command: " + command + " not implemented yet.", LogMessage.LogLevel.WARNING);
                         break;
@@ -519,6 +628,20 @@ public class GameScreen extends PocketRogueScreen {
         }
     }
 
+    /**
+     * Writes the mean, 95th and 99th percentile time of every profiled phase
+     * to the console.
+     */
+    private void logProfile() {
+        console.log("Profile over " + Profiler.getFrameCount() + " frames (ms mean/p95/p99):",
+                LogMessage.LogLevel.NORMAL);
+        for (int phase = 0; phase < Profiler.PHASE_COUNT; phase++) {
+            console.log(String.format("%s: %.3f / %.3f / %.3f", Profiler.getPhaseName(phase),
+                    Profiler.getMean(phase), Profiler.getP95(phase), Profiler.getP99(phase)),
+                    LogMessage.LogLevel.NORMAL);
+        }
+    }
+
     int getMapWidth() {
         return mapWidth;
     }
@@ -25,6 +25,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.model.DefinitionLoader;
 import xyz.vec3d.game.utils.Logger;
 import xyz.vec3d.game.utils.Utils;
@@ -116,6 +117,9 @@ public class LoadingScreen implements Screen {
         for (FileHandle handle : handles) {
             if (handle.name().contains("definitions"))
                 continue;
+            //Atlas pages are loaded along with their atlas.
+            if (isAtlasPage(handle))
+                continue;
             Class<?> classToLoadAs = Texture.class;
             switch (handle.extension()) {
                 case "atlas":
@@ -134,6 +138,19 @@ public class LoadingScreen implements Screen {
         new DefinitionLoader().loadDefinitions();
     }
 
+    /**
+     * Determines if an image is the page of a texture atlas, which is the case
+     * when an atlas with the same name sits next to it.
+     *
+     * @param handle The file to check.
+     *
+     * @return True if the file is loaded as part of an atlas.
+     */
+    private boolean isAtlasPage(FileHandle handle) {
+        return handle.extension().equals("png")
+                && handle.sibling(handle.nameWithoutExtension() + ".atlas").exists();
+    }
+
     /**
      * Used to get file handles for all files in a directory.
      *
@@ -175,6 +192,7 @@ public class LoadingScreen implements Screen {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         if (PocketRogue.getAssetManager().update()) {
+            AssetRegistry.resolveAll();
             text.setVisible(true);
             if (Gdx.input.isTouched()) {
                 pocketRogue.setScreen(new MenuScreen(pocketRogue));
@@ -12,6 +12,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.gfx.SpriteSheet;
 
 /**
@@ -48,7 +49,7 @@ public class MenuScreen implements Screen {
         this.pocketRogue = pocketRogue;
         uiStage = new Stage(new StretchViewport(Settings.WIDTH, Settings.HEIGHT));
         Gdx.input.setInputProcessor(uiStage);
-        skin = PocketRogue.getAsset("uiskin.json");
+        skin = AssetRegistry.UI_SKIN.get();
 
         //Set up UI components here.
         Table uiTable = new Table(skin);
@@ -2,9 +2,15 @@ package xyz.vec3d.game;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
 
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.gfx.SpriteSheet;
 import xyz.vec3d.game.utils.Logger;
+import xyz.vec3d.game.utils.ParallelExecutor;
 import xyz.vec3d.game.utils.Utils;
 
 /**
@@ -16,10 +22,26 @@ import xyz.vec3d.game.utils.Utils;
  */
 public class PocketRogue extends Game {
 
+	/**
+	 * Atlas holding every sprite image. It is built from assets-raw/sprites by
+	 * the desktop project's packTextures task.
+	 */
+	public static final String SPRITE_ATLAS = "sprites.atlas";
+
 	private AssetManager assetManager = new AssetManager();
 
+	/**
+	 * Regions already looked up in the sprite atlas, by name.
+	 */
+	private ObjectMap<String, TextureRegion> regions = new ObjectMap<>();
+
 	private SpriteSheet[] spriteSheets;
 
+	/**
+	 * Runs work on several threads, or null if the platform can't.
+	 */
+	private ParallelExecutor parallelExecutor;
+
 	private static PocketRogue _instance = new PocketRogue();
 
 	public PocketRogue() {
@@ -34,6 +56,34 @@ public class PocketRogue extends Game {
 		super.render();
 	}
 
+	@Override
+	public void dispose() {
+		super.dispose();
+		if (parallelExecutor != null) {
+			parallelExecutor.dispose();
+			parallelExecutor = null;
+		}
+	}
+
+	/**
+	 * Gives the game a way to run work on several threads. Set by launchers
+	 * whose platform supports it before the game starts.
+	 *
+	 * @param parallelExecutor The executor. Disposed along with the game.
+	 */
+	public void setParallelExecutor(ParallelExecutor parallelExecutor) {
+		this.parallelExecutor = parallelExecutor;
+	}
+
+	/**
+	 * Returns the executor for running work on several threads.
+	 *
+	 * @return The executor or null if the platform doesn't provide one.
+	 */
+	public ParallelExecutor getParallelExecutor() {
+		return parallelExecutor;
+	}
+
 	public AssetManager getAssets() {
 		return assetManager;
 	}
@@ -61,10 +111,61 @@ public class PocketRogue extends Game {
 		return getAsset(name, true);
 	}
 
+	/**
+	 * Returns a loaded asset. Images that were packed into the sprite atlas
+	 * aren't loaded on their own and must be looked up with
+	 * {@link #getRegion(String)} instead.
+	 *
+	 * @param name Path of the asset.
+	 * @param managed True if the path is relative to the managed_assets folder.
+	 *
+	 * @return The asset.
+	 *
+	 * @throws GdxRuntimeException If the asset is an image that was packed into
+	 *                             the sprite atlas.
+	 */
 	public static <T> T getAsset(String name, boolean managed) {
+		AssetRegistry.countLookup();
 		if (managed) {
-			return getAssetManager().get("./managed_assets/" + name);
+			String path = "./managed_assets/" + name;
+			if (name.endsWith(".png") && !getAssetManager().isLoaded(path)) {
+				throw new GdxRuntimeException(name + " was packed into " + SPRITE_ATLAS
+						+ ", use PocketRogue.getRegion() to get it");
+			}
+			return getAssetManager().get(path);
 		}
 		return getAssetManager().get(name);
 	}
+
+	/**
+	 * Returns a region of the sprite atlas. Regions are named after the image
+	 * they were packed from, relative to assets-raw/sprites, and the ".png"
+	 * extension may be left on.
+	 *
+	 * @param name Name of the packed image.
+	 *
+	 * @return The region or null if no image with that name was packed.
+	 */
+	public static TextureRegion getRegion(String name) {
+		AssetRegistry.countLookup();
+		return findRegion(name);
+	}
+
+	private static TextureRegion findRegion(String name) {
+		ObjectMap<String, TextureRegion> regions = getInstance().regions;
+		TextureRegion region = regions.get(name);
+		if (region == null) {
+			String regionName = name.endsWith(".png")
+					? name.substring(0, name.length() - 4) : name;
+			TextureAtlas atlas = getAssetManager().get("./managed_assets/" + SPRITE_ATLAS,
+					TextureAtlas.class);
+			region = atlas.findRegion(regionName);
+			if (region == null) {
+				Logger.log("No sprite named " + regionName, PocketRogue.class);
+				return null;
+			}
+			regions.put(name, region);
+		}
+		return region;
+	}
 }
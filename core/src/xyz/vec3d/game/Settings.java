@@ -39,4 +39,37 @@ public class Settings {
 
     public static int MAX_WORLD_HEIGHT;
 
+    /**
+     * Number of simulation steps run per second. Rendering is independent of
+     * this rate so it can be lowered on weak hardware without slowing the game
+     * down.
+     */
+    public static int SIMULATION_HZ = 60;
+
+    /**
+     * When true the collision system searches for colliding pairs on several
+     * threads. Only pays off with a large number of entities.
+     */
+    public static boolean PARALLEL_COLLISION = false;
+
+    /**
+     * When true the positions and velocities of moving entities are kept in
+     * flat arrays that the movement system steps in one pass. Must be set
+     * before the game screen creates its engine.
+     */
+    public static boolean DENSE_TRANSFORMS = false;
+
+    /**
+     * When true entities outside of the camera's view stop advancing their
+     * animations. Their animations pick up where they left off once they come
+     * back into view.
+     */
+    public static boolean SKIP_OFFSCREEN_ANIMATION = false;
+
+    /**
+     * When true the {@link xyz.vec3d.game.utils.Profiler} times each system
+     * and render phase. When false timing is skipped entirely.
+     */
+    public static boolean PROFILING = false;
+
 }
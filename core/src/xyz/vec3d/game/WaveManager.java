@@ -1,15 +1,18 @@
 package xyz.vec3d.game;
 
 import com.badlogic.ashley.core.Engine;
-import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import xyz.vec3d.game.entities.Enemy;
+import xyz.vec3d.game.entities.EntityPools;
 import xyz.vec3d.game.entities.Player;
 import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.listeners.EntityRemovalListener;
+import xyz.vec3d.game.systems.SpatialIndexSystem;
 import xyz.vec3d.game.utils.Utils;
 
 /**
@@ -21,10 +24,36 @@ import xyz.vec3d.game.utils.Utils;
  * when to star the next wave.
  */
 
-class WaveManager implements EntityListener {
+class WaveManager implements EntityRemovalListener {
+
+    /**
+     * How close in world units an enemy is allowed to spawn to an existing
+     * entity.
+     */
+    private static final float SPAWN_CLEARANCE = 2f;
+
+    /**
+     * Number of random positions tried before giving up on finding a clear
+     * spot and spawning anyways.
+     */
+    private static final int SPAWN_ATTEMPTS = 5;
 
     private GameScreen gameScreen;
     private Engine engine;
+    private SpatialIndexSystem spatialIndex;
+
+    /**
+     * Reused for spawn checks against the spatial index.
+     */
+    private Array<PocketRogueEntity> nearbyEntities = new Array<>();
+
+    /**
+     * Positions picked for the wave being spawned, as x,y pairs. The spatial
+     * index is only rebuilt when the engine updates, so enemies spawned
+     * earlier in the same wave aren't in it yet and are checked against
+     * these instead.
+     */
+    private FloatArray spawnPositions = new FloatArray();
 
     private int waveNumber;
     private int entitiesLeft;
@@ -34,7 +63,7 @@ class WaveManager implements EntityListener {
     WaveManager(GameScreen gameScreen, Engine engine) {
         this.gameScreen = gameScreen;
         this.engine = engine;
-        this.engine.addEntityListener(this);
+        this.spatialIndex = engine.getSystem(SpatialIndexSystem.class);
         this.waveNumber = 1;
         this.entitiesLeft = this.waveNumber;
         this.waveEnemies = new ArrayList<>();
@@ -48,11 +77,13 @@ class WaveManager implements EntityListener {
 
     void startWave() {
         //Spawn an entity per wave number.
+        spawnPositions.clear();
         for (int i = 0; i < waveNumber; i++) {
             Enemy enemyToSpawn = generateEnemy();
             engine.addEntity(enemyToSpawn);
             waveEnemies.add(enemyToSpawn);
         }
+        spawnPositions.clear();
     }
 
     /**
@@ -70,32 +101,72 @@ class WaveManager implements EntityListener {
         startWave();
     }
 
+    /**
+     * Creates a new enemy at a random position. A few positions are tried so
+     * that enemies don't spawn on top of the player, other entities or the
+     * rest of the wave.
+     *
+     * @return The enemy to spawn.
+     */
     private Enemy generateEnemy() {
         int entityIdToSpawn = Utils.generateEntityId();
-        int x = Utils.generateRandomNumber(gameScreen.getMapWidth());
-        int y = Utils.generateRandomNumber(gameScreen.getMapHeight());
-        return new Enemy(entityIdToSpawn, x, y);
+        int x = 0;
+        int y = 0;
+        for (int attempt = 0; attempt < SPAWN_ATTEMPTS; attempt++) {
+            x = Utils.generateRandomNumber(gameScreen.getMapWidth());
+            y = Utils.generateRandomNumber(gameScreen.getMapHeight());
+            spatialIndex.queryRadius(x + 0.5f, y + 0.5f, SPAWN_CLEARANCE, nearbyEntities);
+            if (nearbyEntities.size == 0 && !isNearSpawn(x, y)) {
+                break;
+            }
+        }
+        spawnPositions.add(x);
+        spawnPositions.add(y);
+        return EntityPools.obtainEnemy(entityIdToSpawn, x, y);
     }
 
-    @Override
-    public void entityAdded(Entity entity) {
-
+    /**
+     * Checks a position against the positions already picked for this wave.
+     *
+     * @param x The x coordinate being tried.
+     * @param y The y coordinate being tried.
+     *
+     * @return True if an enemy of this wave spawns within the clearance.
+     */
+    private boolean isNearSpawn(float x, float y) {
+        float[] positions = spawnPositions.items;
+        for (int i = 0; i < spawnPositions.size; i += 2) {
+            float dx = positions[i] - x;
+            float dy = positions[i + 1] - y;
+            if (dx * dx + dy * dy < SPAWN_CLEARANCE * SPAWN_CLEARANCE) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Triggered whenever an entity is removed from the engine. We have to make
-     * sure we don't handle entities that aren't the player or mobs.
+     * Triggered once per tick with every entity removed from the engine during
+     * it. We have to make sure we don't handle entities that aren't the player
+     * or mobs. Enemies are pooled and spawned again later, so removed enemies
+     * are dropped from the wave right away. The next wave starts at most once,
+     * after the whole batch has been counted.
      *
-     * @param entity The entity being removed from the world.
+     * @param entities The entities removed from the world.
      */
     @Override
-    public void entityRemoved(Entity entity) {
-        PocketRogueEntity pocketRogueEntity = (PocketRogueEntity) entity;
-        if (!isEntityValid(pocketRogueEntity)) {
-            return;
+    public void entitiesRemoved(Array<PocketRogueEntity> entities) {
+        boolean counted = false;
+        for (int i = 0; i < entities.size; i++) {
+            PocketRogueEntity pocketRogueEntity = entities.get(i);
+            if (!isEntityValid(pocketRogueEntity)) {
+                continue;
+            }
+            waveEnemies.remove(pocketRogueEntity);
+            entitiesLeft--;
+            counted = true;
         }
-        entitiesLeft--;
-        if (entitiesLeft <= 0) {
+        if (counted && entitiesLeft <= 0) {
             endWave();
         }
     }
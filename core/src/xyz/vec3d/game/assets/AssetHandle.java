@@ -0,0 +1,64 @@
+package xyz.vec3d.game.assets;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import xyz.vec3d.game.PocketRogue;
+
+/**
+ * Created by Daron on 6/12/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * A typed reference to a loaded asset. The asset is looked up by name once,
+ * when loading finishes, and {@link #get()} simply returns it after that, so
+ * handles can be used freely in code that runs every frame.
+ *
+ * @param <T> Type of the asset.
+ */
+public class AssetHandle<T> {
+
+    private final String name;
+    private final Class<T> type;
+
+    /**
+     * True if the name is relative to the managed_assets folder.
+     */
+    private final boolean managed;
+
+    private T asset;
+
+    AssetHandle(String name, Class<T> type, boolean managed) {
+        this.name = name;
+        this.type = type;
+        this.managed = managed;
+    }
+
+    /**
+     * Looks the asset up by name and keeps it.
+     */
+    @SuppressWarnings("unchecked")
+    void resolve() {
+        if (type == TextureRegion.class) {
+            asset = (T) PocketRogue.getRegion(name);
+        } else {
+            asset = PocketRogue.getAsset(name, managed);
+        }
+    }
+
+    /**
+     * Returns the asset.
+     *
+     * @return The asset or null if loading hasn't finished yet.
+     */
+    public T get() {
+        return asset;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+}
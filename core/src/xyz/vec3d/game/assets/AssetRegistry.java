@@ -0,0 +1,93 @@
+package xyz.vec3d.game.assets;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Created by Daron on 6/12/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Handles for the assets the game uses by name. Every handle is resolved once
+ * when the loading screen finishes, after which code should hold on to the
+ * handle or the asset it returns instead of asking
+ * {@link xyz.vec3d.game.PocketRogue#getAsset(String)} again.
+ *
+ * To catch code that still looks assets up by name, every string lookup made
+ * after loading is counted and shown on the debug overlay.
+ */
+public class AssetRegistry {
+
+    private static final Array<AssetHandle<?>> handles = new Array<>();
+
+    public static final AssetHandle<Skin> UI_SKIN = managed("uiskin.json", Skin.class);
+    public static final AssetHandle<TiledMap> MAP = managed("map.tmx", TiledMap.class);
+    public static final AssetHandle<BitmapFont> DEFAULT_FONT = unmanaged("default.fnt",
+            BitmapFont.class);
+
+    public static final AssetHandle<TextureRegion> HEALTH_BAR = region("healthBar");
+    public static final AssetHandle<TextureRegion> MANA_BAR = region("manaBar");
+    public static final AssetHandle<TextureRegion> BAR_BACKGROUND = region("barBackground");
+    public static final AssetHandle<TextureRegion> FRAME_BORDER = region("frameBorder");
+    public static final AssetHandle<TextureRegion> PLAYER_ICON = region("playerIcon");
+    public static final AssetHandle<TextureRegion> HOT_BAR = region("hotbar");
+
+    private static boolean resolved;
+
+    /**
+     * Number of assets looked up by name since the handles were resolved.
+     */
+    private static int lateLookups;
+
+    private static <T> AssetHandle<T> managed(String name, Class<T> type) {
+        return register(new AssetHandle<>(name, type, true));
+    }
+
+    private static <T> AssetHandle<T> unmanaged(String name, Class<T> type) {
+        return register(new AssetHandle<>(name, type, false));
+    }
+
+    private static AssetHandle<TextureRegion> region(String name) {
+        return register(new AssetHandle<>(name, TextureRegion.class, true));
+    }
+
+    private static <T> AssetHandle<T> register(AssetHandle<T> handle) {
+        handles.add(handle);
+        return handle;
+    }
+
+    /**
+     * Resolves every handle. Called once the asset manager has finished
+     * loading.
+     */
+    public static void resolveAll() {
+        if (resolved) {
+            return;
+        }
+        for (AssetHandle<?> handle : handles) {
+            handle.resolve();
+        }
+        resolved = true;
+    }
+
+    /**
+     * Notes down that an asset was looked up by name.
+     */
+    public static void countLookup() {
+        if (resolved) {
+            lateLookups++;
+        }
+    }
+
+    /**
+     * Returns the number of assets looked up by name since loading finished.
+     * Anything that keeps climbing while playing is a lookup that should be
+     * replaced with a handle.
+     */
+    public static int getLateLookups() {
+        return lateLookups;
+    }
+}
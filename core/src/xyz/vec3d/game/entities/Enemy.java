@@ -1,15 +1,14 @@
 package xyz.vec3d.game.entities;
 
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.entities.components.CollideComponent;
 import xyz.vec3d.game.entities.components.HealthComponent;
 import xyz.vec3d.game.entities.components.MovementSpeedComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.entities.components.SteeringComponent;
 import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.gfx.AnimationLibrary;
 import xyz.vec3d.game.model.DefinitionLoader;
+import xyz.vec3d.game.model.DefinitionLoader.Definition;
 import xyz.vec3d.game.model.DefinitionProperty;
 
 /**
@@ -22,28 +21,47 @@ public class Enemy extends PocketRogueEntity {
     private int id;
 
     public Enemy(int id, float x, float y) {
+        this();
+        init(id, x, y);
+    }
+
+    /**
+     * Creates an enemy that isn't set up yet. Used by {@link EntityPools},
+     * which calls {@link #init} before handing it out.
+     */
+    Enemy() {
         super();
-        this.id = id;
-        add(new PositionComponent(x, y));
+        add(new PositionComponent());
         add(new VelocityComponent());
+        setCollisionLayer(CollideComponent.Layer.ENEMY);
+        add(new HealthComponent(0));
+        add(new MovementSpeedComponent());
+        add(new SteeringComponent());
+        //Set up animations here, shared with every other enemy.
+        setAnimations(AnimationLibrary.getMovementAnimations("animation_sheets/player_animation",
+                32, 32, 1/60f, 3, 1/10f));
+    }
+
+    /**
+     * Places the enemy in the world and loads its properties from its
+     * definition.
+     *
+     * @param id The enemy's definition id.
+     * @param x The x coordinate to spawn at.
+     * @param y The y coordinate to spawn at.
+     */
+    void init(int id, float x, float y) {
+        this.id = id;
+        PositionComponent positionComponent = pm.get(this);
+        positionComponent.setPosition(x, y);
+        positionComponent.savePreviousPosition();
+        cm.get(this).setPosition(x, y);
         //Load up properties
-        this.health = (float)((double)DefinitionLoader.getEntityDefinition(id).getProperty(DefinitionProperty.HEALTH));
-        add(new HealthComponent(this.health));
-        float moveSpeed = (float)((double)DefinitionLoader.getEntityDefinition(id).getProperty(DefinitionProperty.MOVE_SPEED));
-        add(new MovementSpeedComponent(moveSpeed));
-        //Set up animations here.
-        Texture animationSheet = PocketRogue.getAsset("animation_sheets/player_animation.png");
-        TextureRegion[][] tmpRegions = TextureRegion.split(animationSheet, 32, 32);
-        TextureRegion[] idle = new TextureRegion[3];
-        System.arraycopy(tmpRegions[0], 0, idle, 0, idle.length);
-        //Set the animations available
-        setAnimations(new Animation[] {
-                new Animation(1/60f, tmpRegions[3]), //Left
-                new Animation(1/60f, tmpRegions[2]), //Right
-                new Animation(1/60f, tmpRegions[1]), //Up
-                new Animation(1/60f, tmpRegions[0]), //Down
-                new Animation(1/10f, idle) //Idle
-        });
+        Definition definition = DefinitionLoader.getEntityDefinition(id);
+        this.health = (float)((double)definition.getProperty(DefinitionProperty.HEALTH));
+        hm.get(this).reset(this.health);
+        float moveSpeed = (float)((double)definition.getProperty(DefinitionProperty.MOVE_SPEED));
+        mm.get(this).setMoveSpeed(moveSpeed);
     }
 
     public int getId() {
@@ -57,8 +75,7 @@ public class Enemy extends PocketRogueEntity {
     @Override
     public void doCollision(PocketRogueEntity otherEntity) {
         if (otherEntity instanceof Projectile) {
-            float damage = (float) ((Projectile) otherEntity).getProperty("dmg");
-            applyDamage(damage);
+            applyDamage(((Projectile) otherEntity).getDamage());
         }
     }
 
@@ -68,4 +85,13 @@ public class Enemy extends PocketRogueEntity {
             applyDamage(damage);
         }
     }
+
+    @Override
+    public void reset() {
+        super.reset();
+        vm.get(this).setVelocity(0, 0);
+        SteeringComponent steeringComponent = getComponent(SteeringComponent.class);
+        steeringComponent.clearPath();
+        steeringComponent.clearTarget();
+    }
 }
@@ -0,0 +1,133 @@
+package xyz.vec3d.game.entities;
+
+import com.badlogic.gdx.utils.Pool;
+
+import xyz.vec3d.game.model.ItemStack;
+
+/**
+ * Created by Daron on 6/13/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Pools for the entities that are spawned and killed all through combat:
+ * projectiles, enemies and items dropped on the ground. Each pooled entity
+ * keeps its components, so spawning one only sets a few values instead of
+ * allocating the entity and all of its components again.
+ *
+ * Dead entities are handed back by the
+ * {@link xyz.vec3d.game.systems.DeathSweepSystem} once the engine has removed
+ * them, which calls {@link PocketRogueEntity#reset()} on them. An entity must
+ * not be used after it has been removed from the engine.
+ */
+public class EntityPools {
+
+    /**
+     * Most entities of one type kept around while they aren't in use.
+     */
+    private static final int MAX_FREE = 256;
+
+    private static final Pool<Projectile> projectiles = new Pool<Projectile>(16, MAX_FREE) {
+        @Override
+        protected Projectile newObject() {
+            return new Projectile();
+        }
+    };
+
+    private static final Pool<Enemy> enemies = new Pool<Enemy>(16, MAX_FREE) {
+        @Override
+        protected Enemy newObject() {
+            return new Enemy();
+        }
+    };
+
+    private static final Pool<WorldItem> worldItems = new Pool<WorldItem>(16, MAX_FREE) {
+        @Override
+        protected WorldItem newObject() {
+            return new WorldItem();
+        }
+    };
+
+    /**
+     * Returns a projectile ready to be added to the engine.
+     *
+     * @param source The entity firing the projectile.
+     * @param x The x coordinate to fire from.
+     * @param y The y coordinate to fire from.
+     * @param velocityX The projectile's x velocity.
+     * @param velocityY The projectile's y velocity.
+     * @param name The projectile's name, which picks its texture.
+     *
+     * @return The projectile.
+     */
+    public static Projectile obtainProjectile(PocketRogueEntity source, float x, float y,
+                                              float velocityX, float velocityY, String name) {
+        Projectile projectile = projectiles.obtain();
+        projectile.obtained();
+        projectile.init(source, x, y, velocityX, velocityY, name);
+        return projectile;
+    }
+
+    /**
+     * Returns an enemy ready to be added to the engine.
+     *
+     * @param id The enemy's definition id.
+     * @param x The x coordinate to spawn at.
+     * @param y The y coordinate to spawn at.
+     *
+     * @return The enemy.
+     */
+    public static Enemy obtainEnemy(int id, float x, float y) {
+        Enemy enemy = enemies.obtain();
+        enemy.obtained();
+        enemy.init(id, x, y);
+        return enemy;
+    }
+
+    /**
+     * Returns an item ready to be added to the engine.
+     *
+     * @param itemStack The stack lying on the ground.
+     * @param x The x coordinate to drop it at.
+     * @param y The y coordinate to drop it at.
+     *
+     * @return The item.
+     */
+    public static WorldItem obtainWorldItem(ItemStack itemStack, float x, float y) {
+        WorldItem worldItem = worldItems.obtain();
+        worldItem.obtained();
+        worldItem.init(itemStack, x, y);
+        return worldItem;
+    }
+
+    /**
+     * Resets an entity and returns it to its pool. Entities of types that
+     * aren't pooled, such as the player, are ignored, as are entities that are
+     * already in a pool.
+     *
+     * @param entity The entity that was removed from the engine.
+     */
+    public static void free(PocketRogueEntity entity) {
+        if (entity.pooled) {
+            return;
+        }
+        if (entity instanceof Projectile) {
+            projectiles.free((Projectile) entity);
+        } else if (entity instanceof Enemy) {
+            enemies.free((Enemy) entity);
+        } else if (entity instanceof WorldItem) {
+            worldItems.free((WorldItem) entity);
+        } else {
+            return;
+        }
+        entity.pooled = true;
+    }
+
+    /**
+     * Drops every pooled entity, e.g. when leaving the game screen.
+     */
+    public static void clear() {
+        projectiles.clear();
+        enemies.clear();
+        worldItems.clear();
+    }
+}
@@ -1,16 +1,14 @@
 package xyz.vec3d.game.entities;
 
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.entities.components.CollideComponent;
+import xyz.vec3d.game.entities.components.FiringComponent;
 import xyz.vec3d.game.entities.components.HealthComponent;
 import xyz.vec3d.game.entities.components.InventoryComponent;
 import xyz.vec3d.game.entities.components.ManaComponent;
 import xyz.vec3d.game.entities.components.MovementSpeedComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
 import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.gfx.AnimationLibrary;
 import xyz.vec3d.game.model.Inventory;
 import xyz.vec3d.game.model.ItemStack;
 import xyz.vec3d.game.model.combat.ProjectileFiringSystem;
@@ -38,18 +36,13 @@ public class Player extends PocketRogueEntity {
         add(new InventoryComponent());
         add(new HealthComponent(100));
         add(new ManaComponent(100));
+        setCollisionLayer(CollideComponent.Layer.PLAYER);
+        cm.get(this).setPosition(startX, startY);
         //Set up animations here.
-        Texture animationSheet = PocketRogue.getAsset("animation_sheets/player_animation.png");
-        TextureRegion[][] tmpRegions = TextureRegion.split(animationSheet, 32, 32);
-        //Set the animations available
-        setAnimations(new Animation[] {
-                new Animation(1/10f, tmpRegions[3]), //Left
-                new Animation(1/10f, tmpRegions[2]), //Right
-                new Animation(1/10f, tmpRegions[1]), //Up
-                new Animation(1/10f, tmpRegions[0]), //Down
-                new Animation(1/10f, tmpRegions[0]) //Idle
-        });
+        setAnimations(AnimationLibrary.getMovementAnimations("animation_sheets/player_animation",
+                32, 32, 1/10f, 0, 1/10f));
         this.projectileFiringSystem = new ProjectileFiringSystem(this);
+        add(new FiringComponent(projectileFiringSystem));
     }
 
     /**
@@ -1,26 +1,64 @@
 package xyz.vec3d.game.entities;
 
-import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.ComponentMapper;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
 
 import xyz.vec3d.game.entities.components.AnimationComponent;
 import xyz.vec3d.game.entities.components.CollideComponent;
+import xyz.vec3d.game.entities.components.DeadComponent;
 import xyz.vec3d.game.entities.components.HealthComponent;
 import xyz.vec3d.game.entities.components.MovementSpeedComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.entities.components.TextureComponent;
 import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.gfx.AnimationLibrary;
+import xyz.vec3d.game.gfx.RenderQueue;
 import xyz.vec3d.game.model.combat.ProjectileFiringSystem;
-import xyz.vec3d.game.utils.Logger;
 
 /**
  * Created by Daron on 9/15/2016.
  *
  * Custom Ashley {@link Entity} implementation with common methods for all entities that
  * pertain to the PocketRogue system.
+ *
+ * Entities that are spawned often are reused through {@link EntityPools}.
+ * {@link #reset()} is called when such an entity is returned to its pool and
+ * must put the entity back into the state it had when it was constructed.
+ *
+ * Components are looked up through static {@link ComponentMapper}s rather than
+ * {@link Entity#getComponent(Class)}, which hashes the class on every call.
+ * A mapper indexes straight into the entity's components so it never goes
+ * stale when components are added or removed.
  */
-public class PocketRogueEntity extends Entity {
+public class PocketRogueEntity extends Entity implements Pool.Poolable {
+
+    /**
+     * A {@link ComponentMapper} for {@link PositionComponent}s that entities have.
+     */
+    static final ComponentMapper<PositionComponent> pm = ComponentMapper.getFor(PositionComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link VelocityComponent}s that entities have.
+     */
+    static final ComponentMapper<VelocityComponent> vm = ComponentMapper.getFor(VelocityComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link MovementSpeedComponent}s that entities have.
+     */
+    static final ComponentMapper<MovementSpeedComponent> mm = ComponentMapper.getFor(MovementSpeedComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link CollideComponent}s that entities have.
+     */
+    static final ComponentMapper<CollideComponent> cm = ComponentMapper.getFor(CollideComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link HealthComponent}s that entities have.
+     */
+    static final ComponentMapper<HealthComponent> hm = ComponentMapper.getFor(HealthComponent.class);
 
     /**
      * Array of {@link Animation}s that the entity can use.
@@ -32,6 +70,12 @@ public class PocketRogueEntity extends Entity {
      */
     private Animation lastUsedAnimation;
 
+    /**
+     * Holds the entity's current animations. Added along with the animations
+     * so that changing animation doesn't need a component lookup.
+     */
+    private AnimationComponent animationComponent;
+
     /**
      * Updated each time the entity changes direction.
      */
@@ -47,24 +91,64 @@ public class PocketRogueEntity extends Entity {
      */
     private boolean isDead;
 
+    /**
+     * True while the entity is sitting in one of the {@link EntityPools}.
+     */
+    boolean pooled;
+
     float health;
 
     ProjectileFiringSystem projectileFiringSystem;
 
+    /**
+     * Width and height of the entity in world units.
+     */
+    private final float size;
+
+    /**
+     * Creates an entity that is 1 world unit in size.
+     */
     public PocketRogueEntity() {
-        add(new CollideComponent());
+        this(1.0f);
+    }
+
+    /**
+     * Creates an entity with a hit box of the given size.
+     *
+     * @param size Width and height of the entity in world units.
+     */
+    public PocketRogueEntity(float size) {
+        this.size = size;
+        add(new CollideComponent(size, size));
+    }
+
+    /**
+     * Places the entity's hit box on a collision layer, which also decides
+     * which other layers it will collide with.
+     *
+     * @param layer The entity's collision layer.
+     */
+    void setCollisionLayer(CollideComponent.Layer layer) {
+        cm.get(this).setLayer(layer);
     }
 
     /**
      * Sets the animation array to the specified array. Entities that need
      * animations must call this method. Animation direction convention is that
-     * 0 = left, 1 = right, 2 = up, 3 = down, 4 = idle.
+     * 0 = left, 1 = right, 2 = up, 3 = down, 4 = idle. The array is usually
+     * shared with other entities through the {@link AnimationLibrary} so it is
+     * never modified.
      *
      * @param possibleAnimations Animation[] of entity's animations.
      */
     void setAnimations(Animation[] possibleAnimations) {
         this.possibleAnimations = possibleAnimations;
         lastUsedAnimation = this.possibleAnimations[this.possibleAnimations.length - 1];
+        if (animationComponent == null) {
+            animationComponent = new AnimationComponent();
+            add(animationComponent);
+        }
+        animationComponent.setAnimation(AnimationComponent.SLOT_BODY, lastUsedAnimation);
     }
 
     /**
@@ -119,17 +203,11 @@ public class PocketRogueEntity extends Entity {
      */
     public void setAnimationFromVelocity(Vector2 velocity) {
         Animation animation = getAnimationForVelocity(velocity);
-        lastUsedAnimation = animation;
-        if (animation != null) {
-            AnimationComponent animationComponent = getComponent(AnimationComponent.class);
-            if (animationComponent != null) {
-                animationComponent.setAnimation("movement", animation);
-            } else {
-                AnimationComponent aComponent = new AnimationComponent();
-                aComponent.setAnimation("movement", animation);
-                add(aComponent);
-            }
+        if (animation == null || animation == lastUsedAnimation) {
+            return;
         }
+        lastUsedAnimation = animation;
+        animationComponent.setAnimation(AnimationComponent.SLOT_BODY, animation);
     }
 
     /**
@@ -139,25 +217,21 @@ public class PocketRogueEntity extends Entity {
      * @return True if the velocity is non-zero.
      */
     public boolean isMoving() {
-        VelocityComponent vc = getComponent(VelocityComponent.class);
-        return !vc.getVelocity().isZero();
+        VelocityComponent vc = vm.get(this);
+        return vc.getX() != 0 || vc.getY() != 0;
     }
 
     /**
-     * Called whenever an entity should be removed from the engine.
+     * Called whenever an entity should be removed from the engine. The entity
+     * is marked with a {@link DeadComponent} and removed by the
+     * {@link xyz.vec3d.game.systems.DeathSweepSystem}.
      */
     public void kill() {
-        Logger.log("Killed", PocketRogueEntity.class);
-        isDead = true;
-    }
-
-    public void update(Engine engine, float delta) {
-        if (isDead) {
-            engine.removeEntity(this);
-        }
-        if (projectileFiringSystem != null) {
-            projectileFiringSystem.update(delta);
+        if (isDead || pooled) {
+            return;
         }
+        isDead = true;
+        add(DeadComponent.INSTANCE);
     }
 
     /**
@@ -166,7 +240,7 @@ public class PocketRogueEntity extends Entity {
      * @return The position component or null if one doesn't exist.
      */
     public Vector2 getPosition() {
-        return getComponent(PositionComponent.class).getPosition();
+        return pm.get(this).getPosition();
     }
 
     /**
@@ -175,7 +249,7 @@ public class PocketRogueEntity extends Entity {
      * @return The velocity component or null if one doesn't exist.
      */
     Vector2 getVelocity() {
-        return getComponent(VelocityComponent.class).getVelocity();
+        return vm.get(this).getVelocity();
     }
 
     /**
@@ -184,14 +258,15 @@ public class PocketRogueEntity extends Entity {
      * @param velocity The Vector2 representing entity's new velocity.
      */
     public void setVelocity(Vector2 velocity) {
-        Vector2 vel = getVelocity();
-        if (vel != null) {
-            getVelocity().set(velocity.cpy().scl(getMoveSpeed()));
+        VelocityComponent vc = vm.get(this);
+        if (vc != null) {
+            float moveSpeed = getMoveSpeed();
+            vc.setVelocity(velocity.x * moveSpeed, velocity.y * moveSpeed);
         } else {
             add(new VelocityComponent(velocity.cpy().scl(getMoveSpeed())));
         }
         if (!velocity.isZero()) {
-            lastDirection = velocity.cpy();
+            lastDirection.set(velocity);
         }
     }
 
@@ -201,7 +276,7 @@ public class PocketRogueEntity extends Entity {
      * @return The movespeed component or null if one doesn't exist.
      */
     private float getMoveSpeed() {
-        return getComponent(MovementSpeedComponent.class).getMoveSpeed();
+        return mm.get(this).getMoveSpeed();
     }
 
     public Vector2 getDirection() {
@@ -212,7 +287,17 @@ public class PocketRogueEntity extends Entity {
         return name;
     }
 
+    /**
+     * Sets the entity's name. The name picks the entity's texture, so a
+     * texture left over from a different name is dropped and looked up again
+     * when the entity is added to the engine.
+     *
+     * @param name The entity's new name.
+     */
     public void setName(String name) {
+        if (this.name != null && !this.name.equals(name)) {
+            remove(TextureComponent.class);
+        }
         this.name = name;
     }
 
@@ -252,8 +337,12 @@ public class PocketRogueEntity extends Entity {
     }
 
     void applyDamage(float damage) {
+        //Entities waiting in a pool can't be hurt.
+        if (pooled) {
+            return;
+        }
         this.health -= damage;
-        HealthComponent healthComponent = getComponent(HealthComponent.class);
+        HealthComponent healthComponent = hm.get(this);
         if (healthComponent != null) {
             healthComponent.removeHealth(damage);
         }
@@ -263,10 +352,47 @@ public class PocketRogueEntity extends Entity {
     }
 
     public float getSize() {
-        return 1.0f;
+        return size;
+    }
+
+    /**
+     * Returns the {@link RenderQueue} layer the entity is drawn on.
+     *
+     * @return The layer.
+     */
+    public int getRenderLayer() {
+        return RenderQueue.LAYER_ACTORS;
     }
 
     boolean isDead() {
         return isDead;
     }
+
+    /**
+     * Takes the entity out of its pool. Clears the dead state as well, so the
+     * entity can't be handed out already marked dead even if something killed
+     * it after {@link #reset()}.
+     */
+    void obtained() {
+        pooled = false;
+        isDead = false;
+        remove(DeadComponent.class);
+    }
+
+    /**
+     * Clears the entity's state so it can be spawned again. Components are
+     * kept and reused; subclasses reset the ones they added.
+     */
+    @Override
+    public void reset() {
+        isDead = false;
+        remove(DeadComponent.class);
+        health = 0;
+        lastDirection.set(0, -1);
+        if (possibleAnimations != null) {
+            lastUsedAnimation = possibleAnimations[possibleAnimations.length - 1];
+            animationComponent.setAnimation(AnimationComponent.SLOT_BODY, lastUsedAnimation);
+            animationComponent.resetAnimationTime();
+        }
+    }
 }
@@ -1,11 +1,10 @@
 package xyz.vec3d.game.entities;
 
-import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import xyz.vec3d.game.entities.components.CollideComponent;
+import xyz.vec3d.game.entities.components.LifetimeComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
 import xyz.vec3d.game.entities.components.RotationComponent;
 import xyz.vec3d.game.entities.components.VelocityComponent;
@@ -28,65 +27,91 @@ public class Projectile extends PocketRogueEntity {
     private PocketRogueEntity source;
 
     /**
-     * How long the entity has been in the world. When this hits a certain
-     * threshold the entity will remove itself from the engine.
+     * Time in seconds till the projectile is dead.
      */
-    private float life;
+    private static final float LIFETIME = 5;
 
     /**
-     * Time till the entity is dead.
+     * Damage done to whatever the projectile hits.
      */
-    private float lifeThreshold = 5;
-
-    private Map<String, Object> properties;
+    private float damage;
 
     public Projectile(PocketRogueEntity source, float x, float y, float velocityX,
                       float velocityY, String name) {
-        this(source, new Vector2(x, y), new Vector2(velocityX, velocityY), name);
+        this();
+        init(source, x, y, velocityX, velocityY, name);
     }
 
     public Projectile(PocketRogueEntity source, Vector2 position, Vector2 velocity,
                       String name) {
+        this(source, position.x, position.y, velocity.x, velocity.y, name);
+    }
+
+    /**
+     * Creates a projectile that isn't set up yet. Used by {@link EntityPools},
+     * which calls {@link #init} before handing it out.
+     */
+    Projectile() {
         super();
+        add(new PositionComponent());
+        add(new VelocityComponent());
+        add(new RotationComponent(0));
+        //Projectiles also die once a wall stops them.
+        add(new LifetimeComponent(LIFETIME, true));
+        setCollisionLayer(CollideComponent.Layer.PROJECTILE);
+        //Projectiles can move further than their own size in a tick.
+        cm.get(this).setContinuous(true);
+    }
+
+    /**
+     * Places the projectile in the world and sets it moving.
+     *
+     * @param source The entity firing the projectile.
+     * @param x The x coordinate to fire from.
+     * @param y The y coordinate to fire from.
+     * @param velocityX The projectile's x velocity.
+     * @param velocityY The projectile's y velocity.
+     * @param name The projectile's name, which picks its texture.
+     */
+    void init(PocketRogueEntity source, float x, float y, float velocityX,
+              float velocityY, String name) {
         this.source = source;
-        add(new PositionComponent(position));
-        add(new VelocityComponent(velocity));
-        add(new RotationComponent(velocity.angle()));
+        PositionComponent positionComponent = pm.get(this);
+        positionComponent.setPosition(x, y);
+        positionComponent.savePreviousPosition();
+        vm.get(this).setVelocity(velocityX, velocityY);
+        //Same angle as Vector2.angle(), without needing a vector.
+        float angle = MathUtils.atan2(velocityY, velocityX) * MathUtils.radiansToDegrees;
+        if (angle < 0) {
+            angle += 360;
+        }
+        getComponent(RotationComponent.class).setRotationAngle(angle);
+        cm.get(this).setPosition(x, y);
         setName(name);
-        properties = new HashMap<>();
     }
 
     public PocketRogueEntity getSource() {
         return source;
     }
 
-    public Map<String, Object> getProperties() {
-        return properties;
-    }
-
-    public void putProperty(String key, Object value) {
-        properties.put(key, value);
+    public float getDamage() {
+        return damage;
     }
 
-    public Object getProperty(String key) {
-        return properties.get(key);
+    public void setDamage(float damage) {
+        this.damage = damage;
     }
 
     @Override
-    public void update(Engine engine, float deltaTime) {
-        super.update(engine, deltaTime);
-        life += deltaTime;
-        if ((life >= lifeThreshold) && !isDead()) {
-            this.kill();
-        }
-
-        if (getVelocity().isZero() && !isDead()) {
-            this.kill();
-        }
+    public void doCollision(PocketRogueEntity otherEntity) {
+        this.kill();
     }
 
     @Override
-    public void doCollision(PocketRogueEntity otherEntity) {
-        this.kill();
+    public void reset() {
+        super.reset();
+        source = null;
+        getComponent(LifetimeComponent.class).resetAge();
+        damage = 0;
     }
 }
@@ -1,11 +1,11 @@
 package xyz.vec3d.game.entities;
 
-import com.badlogic.ashley.core.Engine;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 import xyz.vec3d.game.entities.components.CollideComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
 import xyz.vec3d.game.entities.components.TextureComponent;
+import xyz.vec3d.game.gfx.RenderQueue;
 import xyz.vec3d.game.model.ItemStack;
 import xyz.vec3d.game.utils.Utils;
 
@@ -16,14 +16,44 @@ import xyz.vec3d.game.utils.Utils;
  */
 public class WorldItem extends PocketRogueEntity {
 
+    /**
+     * Items on the ground are drawn a little smaller than a tile.
+     */
+    private static final float SIZE = 0.75f;
+
     private ItemStack itemStack;
 
     public WorldItem(ItemStack itemStack, float x, float y) {
+        this();
+        init(itemStack, x, y);
+    }
+
+    /**
+     * Creates an item that isn't set up yet. Used by {@link EntityPools},
+     * which calls {@link #init} before handing it out.
+     */
+    WorldItem() {
+        super(SIZE);
+        add(new PositionComponent());
+        add(new TextureComponent(null));
+        setCollisionLayer(CollideComponent.Layer.ITEM);
+    }
+
+    /**
+     * Drops an item stack on the ground.
+     *
+     * @param itemStack The stack lying on the ground.
+     * @param x The x coordinate to drop it at.
+     * @param y The y coordinate to drop it at.
+     */
+    void init(ItemStack itemStack, float x, float y) {
         this.itemStack = itemStack;
         TextureRegion textureRegion = Utils.getItemTexture(this.itemStack);
-        add(new PositionComponent(x, y));
-        add(new TextureComponent(textureRegion));
-        add(new CollideComponent());
+        getComponent(TextureComponent.class).setTexture(textureRegion);
+        PositionComponent positionComponent = pm.get(this);
+        positionComponent.setPosition(x, y);
+        positionComponent.savePreviousPosition();
+        cm.get(this).setPosition(x, y);
     }
 
     public ItemStack getItemStack() {
@@ -31,12 +61,13 @@ public class WorldItem extends PocketRogueEntity {
     }
 
     @Override
-    public void update(Engine engine, float deltaTime) {
-        super.update(engine, deltaTime);
+    public int getRenderLayer() {
+        return RenderQueue.LAYER_GROUND;
     }
 
     @Override
-    public float getSize() {
-        return 0.75f;
+    public void reset() {
+        super.reset();
+        itemStack = null;
     }
 }
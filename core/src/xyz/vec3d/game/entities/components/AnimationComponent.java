@@ -3,81 +3,82 @@ package xyz.vec3d.game.entities.components;
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.graphics.g2d.Animation;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Created by Daron on 9/9/2016.
  *
- * Represents an Animation container for an entity. The design choice of using a
- * Map instead of creating a bunch of different components is because it is much
- * easier to interact with a single AnimationComponent rather than several types
- * of AnimationComponents. Without a map, there would most likely have to be
- * a component for every type of animation. Say a TemporaryAnimationComponent and
- * a WeaponAnimationComponent. Instead of cluttering the code base with a bunch
- * of classes that are all the same functionality wise, we just keep track of
- * the animations with keys. The issue with this currently is a Map doesn't ensure
- * order so there will probably be issues with layering of the animations but
- * that bridge can be crossed when it gets there.
+ * Represents an Animation container for an entity. Animations are kept in a
+ * fixed number of slots, one per layer of the entity, which are drawn in slot
+ * order so e.g. a weapon always sits on top of the body. Keeping every kind of
+ * animation in one component means there is no need for a separate component
+ * per kind such as a WeaponAnimationComponent.
+ *
+ * Slots are plain array indices so changing or reading the animations every
+ * frame never hashes or allocates. The slots in use are only worked out again
+ * after one of them has changed.
  */
 public class AnimationComponent implements Component {
 
-    /*private List<Animation> animations;
-
-    private float animationTime;
-
-    public AnimationComponent(Animation animation) {
-        this(new Animation[] {animation});
-    }
-
-    public AnimationComponent(Animation... animations) {
-        this.animations = Arrays.asList(animations);
-    }
+    /**
+     * The entity's own movement animation.
+     */
+    public static final int SLOT_BODY = 0;
 
-    public Animation[] getAnimations() {
-        return animations.toArray(new Animation[animations.size()]);
-    }
+    /**
+     * A held weapon, drawn over the body.
+     */
+    public static final int SLOT_WEAPON = 1;
 
-    public void addAnimation(Animation animation) {
-        this.animations.add(animation);
-    }
+    /**
+     * Temporary effects such as spells, drawn over everything else.
+     */
+    public static final int SLOT_EFFECT = 2;
 
-    public void removeAnimation(Animation animation) {
-        this.animations.remove(animation);
-    }
+    public static final int SLOT_COUNT = 3;
 
-    public void addAnimationTime(float deltaTime) {
-        animationTime += deltaTime;
-    }
+    /**
+     * The animation in each slot, or null if the slot is empty.
+     */
+    private final Animation[] animations = new Animation[SLOT_COUNT];
 
-    public float getAnimationTime() {
-        return animationTime;
-    }*/
+    /**
+     * Indices of the slots that hold an animation, in draw order. Only the
+     * first {@link #activeCount} entries are valid.
+     */
+    private final int[] activeSlots = new int[SLOT_COUNT];
+    private int activeCount;
 
     /**
-     * A map of all animations that should be updated for an entity. In general,
-     * something like the movement animation will probably never be removed but
-     * temporary animations will be added/removed often.
+     * True if a slot has changed since {@link #activeSlots} was worked out.
      */
-    private Map<String, Animation> animationMap;
+    private boolean dirty;
 
     /**
      * The animation time used for all the various animations in the component.
      */
     private float animationTime;
 
-    public AnimationComponent() {
-        animationMap = new HashMap<>();
+    /**
+     * Puts an animation in a slot. Does nothing if the slot already holds it.
+     *
+     * @param slot The slot being set, e.g. {@link #SLOT_BODY}.
+     * @param animation The animation for the slot, or null to empty it.
+     */
+    public void setAnimation(int slot, Animation animation) {
+        if (animations[slot] != animation) {
+            animations[slot] = animation;
+            dirty = true;
+        }
     }
 
     /**
-     * Updates the specific animation type.
+     * Returns the animation in a slot.
+     *
+     * @param slot The slot, e.g. {@link #SLOT_BODY}.
      *
-     * @param animationType The animation type being set.
-     * @param animation The animation that corresponds to the type.
+     * @return The animation or null if the slot is empty.
      */
-    public void setAnimation(String animationType, Animation animation) {
-        animationMap.put(animationType, animation);
+    public Animation getAnimation(int slot) {
+        return animations[slot];
     }
 
     /**
@@ -90,18 +91,44 @@ public class AnimationComponent implements Component {
     }
 
     /**
-     * Used to return all the active animations attached to the component. Note
-     * that we don't return the keys because it is useless to have them. The map
-     * is private so can't actually get them outside of the class without making
-     * a new method.
-     *
-     * @return An array of AnimationComponents.
+     * Starts the animations over from their first frame.
      */
-    public Animation[] getAnimations() {
-        return animationMap.values().toArray(new Animation[animationMap.size()]);
+    public void resetAnimationTime() {
+        this.animationTime = 0;
     }
 
     public float getAnimationTime() {
         return animationTime;
     }
+
+    /**
+     * Returns the number of slots holding an animation. Together with
+     * {@link #getActiveAnimation(int)} this walks the animations to draw in
+     * order without creating an array.
+     *
+     * @return The number of animations to draw.
+     */
+    public int getActiveCount() {
+        if (dirty) {
+            activeCount = 0;
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                if (animations[slot] != null) {
+                    activeSlots[activeCount++] = slot;
+                }
+            }
+            dirty = false;
+        }
+        return activeCount;
+    }
+
+    /**
+     * Returns one of the animations to draw.
+     *
+     * @param index Index from 0 up to {@link #getActiveCount()}.
+     *
+     * @return The animation, lowest slot first.
+     */
+    public Animation getActiveAnimation(int index) {
+        return animations[activeSlots[index]];
+    }
 }
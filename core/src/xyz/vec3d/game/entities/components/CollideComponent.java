@@ -6,7 +6,304 @@ import com.badlogic.ashley.core.Component;
  * Created by Daron on 10/11/2016.
  *
  * Entity having this component means it interacts with the collision system.
+ * The component holds the entity's hit box as plain floats so that overlap
+ * tests can be done without creating any {@link com.badlogic.gdx.math.Rectangle}
+ * objects. The bounds are kept in sync with the entity's position by the
+ * {@link xyz.vec3d.game.systems.MovementSystem}; entities must call
+ * {@link #setPosition(float, float)} themselves when they are first placed.
+ *
+ * Each hit box also belongs to a {@link Layer} and has a mask of the layers it
+ * wants to be told about. A pair of entities is only tested when at least one
+ * side's mask contains the other's layer, so pairs nobody cares about (such as
+ * two items lying on top of each other) are thrown out before any geometry is
+ * looked at.
+ *
+ * Fast moving entities can be flagged as {@link #isContinuous() continuous}.
+ * Their hit box remembers where it was at the start of the tick so that the
+ * collision system can sweep it along the whole path it travelled instead of
+ * only testing where it ended up, which stops them from skipping over thin
+ * targets when they move more than a hit box per tick.
  */
 
 public class CollideComponent implements Component {
+
+    /**
+     * The layer-by-layer collision matrix. Row i is the default mask for the
+     * layer with ordinal i and lists which layers that layer reacts to.
+     */
+    private static final int[] DEFAULT_MASKS = {
+            0,                              //NONE
+            Layer.ITEM.bit(),               //PLAYER picks up items.
+            Layer.PROJECTILE.bit(),         //ENEMY is damaged by projectiles.
+            Layer.ENEMY.bit(),              //PROJECTILE is destroyed by enemies.
+            0                               //ITEM is passive.
+    };
+
+    /**
+     * The layer this hit box belongs to.
+     */
+    private Layer layer = Layer.NONE;
+
+    /**
+     * Cached {@link Layer#bit()} of the current layer.
+     */
+    private int layerBit;
+
+    /**
+     * Bit mask of the layers this hit box reacts to.
+     */
+    private int mask;
+
+    private float width;
+    private float height;
+
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    /**
+     * Bottom left corner of the hit box at the start of the current tick.
+     */
+    private float previousMinX;
+    private float previousMinY;
+
+    /**
+     * True if collision for this hit box should be swept along its movement.
+     */
+    private boolean continuous;
+
+    /**
+     * Creates a hit box that is 1 world unit in size.
+     */
+    public CollideComponent() {
+        this(1, 1);
+    }
+
+    /**
+     * Creates a hit box of the given size placed at 0,0.
+     *
+     * @param width Width of the hit box in world units.
+     * @param height Height of the hit box in world units.
+     */
+    public CollideComponent(float width, float height) {
+        this.width = width;
+        this.height = height;
+        setPosition(0, 0);
+    }
+
+    /**
+     * Places the hit box so that its bottom left corner is at the given
+     * position without it having travelled there, so nothing is swept.
+     *
+     * @param x The x coordinate in world units.
+     * @param y The y coordinate in world units.
+     */
+    public void setPosition(float x, float y) {
+        previousMinX = x;
+        previousMinY = y;
+        minX = x;
+        minY = y;
+        maxX = x + width;
+        maxY = y + height;
+    }
+
+    /**
+     * Moves the hit box so that its bottom left corner is at the given
+     * position, remembering where it moved from. Should be called once per
+     * tick by whatever moves the entity.
+     *
+     * @param x The x coordinate in world units.
+     * @param y The y coordinate in world units.
+     */
+    public void moveTo(float x, float y) {
+        previousMinX = minX;
+        previousMinY = minY;
+        minX = x;
+        minY = y;
+        maxX = x + width;
+        maxY = y + height;
+    }
+
+    /**
+     * Determines if this hit box overlaps another. Boxes that only share an
+     * edge are not considered to be overlapping.
+     *
+     * @param other The other hit box.
+     *
+     * @return True if the hit boxes overlap.
+     */
+    public boolean overlaps(CollideComponent other) {
+        return minX < other.maxX && maxX > other.minX
+                && minY < other.maxY && maxY > other.minY;
+    }
+
+    /**
+     * Finds the time of impact between this hit box and another during the
+     * current tick. Both boxes are treated as moving in a straight line from
+     * where they were at the start of the tick to where they are now, so the
+     * result is the fraction of the tick at which they first touch.
+     *
+     * @param other The other hit box.
+     *
+     * @return Time of impact in the range 0-1, or -1 if the boxes never touch.
+     */
+    public float sweep(CollideComponent other) {
+        //Work in the other box's frame of reference so only this box moves.
+        float deltaX = (minX - previousMinX) - (other.minX - other.previousMinX);
+        float deltaY = (minY - previousMinY) - (other.minY - other.previousMinY);
+        float entry = 0;
+        float exit = 1;
+        if (deltaX == 0) {
+            if (previousMinX + width <= other.previousMinX
+                    || previousMinX >= other.previousMinX + other.width) {
+                return -1;
+            }
+        } else {
+            float near = (other.previousMinX - (previousMinX + width)) / deltaX;
+            float far = (other.previousMinX + other.width - previousMinX) / deltaX;
+            if (near > far) {
+                float swap = near;
+                near = far;
+                far = swap;
+            }
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+        if (deltaY == 0) {
+            if (previousMinY + height <= other.previousMinY
+                    || previousMinY >= other.previousMinY + other.height) {
+                return -1;
+            }
+        } else {
+            float near = (other.previousMinY - (previousMinY + height)) / deltaY;
+            float far = (other.previousMinY + other.height - previousMinY) / deltaY;
+            if (near > far) {
+                float swap = near;
+                near = far;
+                far = swap;
+            }
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+        return entry < exit ? entry : -1;
+    }
+
+    /**
+     * Returns the left edge of the area covered by the hit box over the
+     * current tick. For hit boxes that didn't move this is just {@link #getMinX()}.
+     *
+     * @return Left edge of the swept area.
+     */
+    public float getSweptMinX() {
+        return Math.min(minX, previousMinX);
+    }
+
+    public float getSweptMinY() {
+        return Math.min(minY, previousMinY);
+    }
+
+    public float getSweptMaxX() {
+        return Math.max(maxX, previousMinX + width);
+    }
+
+    public float getSweptMaxY() {
+        return Math.max(maxY, previousMinY + height);
+    }
+
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * Flags the hit box as belonging to a fast mover that needs swept
+     * collision.
+     *
+     * @param continuous True to sweep the hit box along its movement.
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
+    /**
+     * Places the hit box on a layer and resets its mask to the default one for
+     * that layer.
+     *
+     * @param layer The new layer.
+     */
+    public void setLayer(Layer layer) {
+        this.layer = layer;
+        this.layerBit = layer.bit();
+        this.mask = DEFAULT_MASKS[layer.ordinal()];
+    }
+
+    public Layer getLayer() {
+        return layer;
+    }
+
+    /**
+     * Overrides the layers this hit box reacts to.
+     *
+     * @param mask Bit mask built from {@link Layer#bit()} values.
+     */
+    public void setMask(int mask) {
+        this.mask = mask;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Determines if this hit box wants to be notified when it touches another.
+     *
+     * @param other The other hit box.
+     *
+     * @return True if the other hit box's layer is in this one's mask.
+     */
+    public boolean reactsTo(CollideComponent other) {
+        return (mask & other.layerBit) != 0;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Collision layers. Layers are kept to a handful so that masks fit into a
+     * single int.
+     */
+    public enum Layer {
+        NONE, PLAYER, ENEMY, PROJECTILE, ITEM;
+
+        /**
+         * Returns the mask bit for the layer. {@link #NONE} has no bit and so
+         * can never be matched by a mask.
+         *
+         * @return The layer's bit.
+         */
+        public int bit() {
+            return this == NONE ? 0 : 1 << (ordinal() - 1);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package xyz.vec3d.game.entities.components;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Marks an entity that has been killed and should be removed from the engine.
+ * The component holds no data, so one instance is shared by every dead
+ * entity.
+ */
+public class DeadComponent implements Component {
+
+    public static final DeadComponent INSTANCE = new DeadComponent();
+
+    private DeadComponent() {
+
+    }
+}
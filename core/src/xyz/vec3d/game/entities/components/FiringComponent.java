@@ -0,0 +1,27 @@
+package xyz.vec3d.game.entities.components;
+
+import com.badlogic.ashley.core.Component;
+
+import xyz.vec3d.game.model.combat.ProjectileFiringSystem;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Component for entities that can fire projectiles. Holds the entity's
+ * {@link ProjectileFiringSystem} so that its cooldown can be ticked by the
+ * {@link xyz.vec3d.game.systems.FiringCooldownSystem}.
+ */
+public class FiringComponent implements Component {
+
+    private ProjectileFiringSystem firingSystem;
+
+    public FiringComponent(ProjectileFiringSystem firingSystem) {
+        this.firingSystem = firingSystem;
+    }
+
+    public ProjectileFiringSystem getFiringSystem() {
+        return firingSystem;
+    }
+}
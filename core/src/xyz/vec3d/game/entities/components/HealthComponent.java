@@ -69,6 +69,16 @@ public class HealthComponent implements Component {
         return currentHealth / maxHealth;
     }
 
+    /**
+     * Sets a new max health and heals the entity up to it.
+     *
+     * @param maxHealth Current/Max health of the entity.
+     */
+    public void reset(float maxHealth) {
+        this.currentHealth = maxHealth;
+        this.maxHealth = maxHealth;
+    }
+
     public void removeHealth(float health) {
         this.currentHealth -= health;
     }
@@ -0,0 +1,66 @@
+package xyz.vec3d.game.entities.components;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Gives an entity a limited time in the world, after which it is killed. The
+ * entity can also be killed as soon as it stops moving, which is how
+ * projectiles disappear when they hit a wall.
+ */
+public class LifetimeComponent implements Component {
+
+    /**
+     * How long the entity has been in the world, in seconds.
+     */
+    private float age;
+
+    /**
+     * Time in seconds till the entity is dead.
+     */
+    private float lifetime;
+
+    /**
+     * True if the entity dies once its velocity is zero.
+     */
+    private boolean expiresWhenStopped;
+
+    public LifetimeComponent(float lifetime, boolean expiresWhenStopped) {
+        this.lifetime = lifetime;
+        this.expiresWhenStopped = expiresWhenStopped;
+    }
+
+    /**
+     * Ages the entity.
+     *
+     * @param deltaTime The time in seconds that has passed.
+     *
+     * @return True if the entity has outlived its lifetime.
+     */
+    public boolean age(float deltaTime) {
+        age += deltaTime;
+        return age >= lifetime;
+    }
+
+    public float getAge() {
+        return age;
+    }
+
+    /**
+     * Starts the entity's lifetime over, e.g. when a pooled entity is reused.
+     */
+    public void resetAge() {
+        age = 0;
+    }
+
+    public float getLifetime() {
+        return lifetime;
+    }
+
+    public boolean expiresWhenStopped() {
+        return expiresWhenStopped;
+    }
+}
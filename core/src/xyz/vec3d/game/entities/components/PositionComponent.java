@@ -11,6 +11,15 @@ import com.badlogic.gdx.math.Vector2;
  * Position component for entities. Defaults to a location of 0,0 in game units
  * unless a coordinate pair is passed to the constructor in which case the entity
  * will be placed at those coordinates.
+ *
+ * The component also remembers where the entity was at the start of the last
+ * simulation step so that rendering can interpolate between the two positions
+ * when frames don't line up with simulation steps.
+ *
+ * When the entity is stored in a {@link TransformStore} the component is only a
+ * view of its slot in the store. The vector returned by {@link #getPosition()}
+ * is then a copy, so positions must be changed with
+ * {@link #setPosition(float, float)}.
  */
 public class PositionComponent implements Component {
 
@@ -19,11 +28,23 @@ public class PositionComponent implements Component {
      */
     private Vector2 position;
 
+    /**
+     * The position at the start of the last simulation step.
+     */
+    private Vector2 previousPosition;
+
+    /**
+     * The store holding the position while the entity is in it, else null.
+     */
+    private TransformStore store;
+    private int slot = -1;
+
     /**
      * Creates a new position component representing 0,0 in world units.
      */
     public PositionComponent() {
         position = new Vector2(0, 0);
+        previousPosition = new Vector2(position);
     }
 
     /**
@@ -35,6 +56,7 @@ public class PositionComponent implements Component {
      */
     public PositionComponent(float x, float y) {
         position = new Vector2(x, y);
+        previousPosition = new Vector2(position);
     }
 
     /**
@@ -48,6 +70,7 @@ public class PositionComponent implements Component {
      */
     public PositionComponent(float[] xy) {
         position = new Vector2(xy[0], xy[1]);
+        previousPosition = new Vector2(position);
     }
 
     /**
@@ -58,6 +81,7 @@ public class PositionComponent implements Component {
      */
     public PositionComponent(Vector2 position) {
         this.position = position;
+        this.previousPosition = new Vector2(position);
     }
 
     /**
@@ -71,6 +95,117 @@ public class PositionComponent implements Component {
         if (position == null) {
             return new Vector2(0, 0);
         }
+        if (store != null) {
+            position.set(store.x[slot], store.y[slot]);
+        }
         return position;
     }
+
+    public float getX() {
+        return store != null ? store.x[slot] : position.x;
+    }
+
+    public float getY() {
+        return store != null ? store.y[slot] : position.y;
+    }
+
+    /**
+     * Moves the entity to a new position.
+     *
+     * @param x The new x coordinate in world units.
+     * @param y The new y coordinate in world units.
+     */
+    public void setPosition(float x, float y) {
+        if (store != null) {
+            store.x[slot] = x;
+            store.y[slot] = y;
+            return;
+        }
+        position.set(x, y);
+    }
+
+    /**
+     * Remembers the current position as the position at the start of the
+     * simulation step. Called once per step before the entity is moved.
+     */
+    public void savePreviousPosition() {
+        if (store != null) {
+            store.previousX[slot] = store.x[slot];
+            store.previousY[slot] = store.y[slot];
+            return;
+        }
+        previousPosition.set(position);
+    }
+
+    /**
+     * Returns the x coordinate blended between the previous and the current
+     * simulation step.
+     *
+     * @param alpha How far the frame is between the previous step (0) and the
+     *              current step (1).
+     *
+     * @return The interpolated x coordinate.
+     */
+    public float getInterpolatedX(float alpha) {
+        if (store != null) {
+            float previousX = store.previousX[slot];
+            return previousX + (store.x[slot] - previousX) * alpha;
+        }
+        return previousPosition.x + (position.x - previousPosition.x) * alpha;
+    }
+
+    /**
+     * Returns the y coordinate blended between the previous and the current
+     * simulation step.
+     *
+     * @param alpha How far the frame is between the previous step (0) and the
+     *              current step (1).
+     *
+     * @return The interpolated y coordinate.
+     */
+    public float getInterpolatedY(float alpha) {
+        if (store != null) {
+            float previousY = store.previousY[slot];
+            return previousY + (store.y[slot] - previousY) * alpha;
+        }
+        return previousPosition.y + (position.y - previousPosition.y) * alpha;
+    }
+
+    /**
+     * Moves the position into a slot of a {@link TransformStore}.
+     */
+    void bind(TransformStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        store.x[slot] = position.x;
+        store.y[slot] = position.y;
+        store.previousX[slot] = previousPosition.x;
+        store.previousY[slot] = previousPosition.y;
+    }
+
+    /**
+     * Copies the position back out of the store it was bound to.
+     */
+    void unbind() {
+        position.set(store.x[slot], store.y[slot]);
+        previousPosition.set(store.previousX[slot], store.previousY[slot]);
+        store = null;
+        slot = -1;
+    }
+
+    boolean isBound() {
+        return store != null;
+    }
+
+    TransformStore getStore() {
+        return store;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
 }
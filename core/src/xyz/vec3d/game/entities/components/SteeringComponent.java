@@ -0,0 +1,138 @@
+package xyz.vec3d.game.entities.components;
+
+import com.badlogic.ashley.core.Component;
+
+import xyz.vec3d.game.model.map.HierarchicalPathfinder.PathRequest;
+
+/**
+ * Created by Daron on 6/8/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Entities with this component have their velocity set each tick by the
+ * {@link xyz.vec3d.game.systems.NavigationSystem}. By default they walk
+ * towards the player using the shared flow field. Given a target tile with
+ * {@link #setTarget(int, int)} they instead follow a path found by the
+ * {@link xyz.vec3d.game.model.map.HierarchicalPathfinder}.
+ */
+public class SteeringComponent implements Component {
+
+    /**
+     * How close the entity's center gets to the target's center before it
+     * stops moving, in world units.
+     */
+    private float stopDistance;
+
+    /**
+     * True if the entity is heading for {@link #targetX}, {@link #targetY}
+     * rather than the player.
+     */
+    private boolean hasTarget;
+    private int targetX;
+    private int targetY;
+
+    /**
+     * The path being followed, or being searched for, towards the target.
+     * Reused for every path the entity needs.
+     */
+    private final PathRequest path = new PathRequest();
+
+    /**
+     * True once {@link #path} has been requested for the current target.
+     */
+    private boolean hasPath;
+
+    /**
+     * Index of the next path node to walk to. Equal to the number of nodes
+     * once only the goal itself is left.
+     */
+    private int waypoint;
+
+    public SteeringComponent() {
+        this(0.75f);
+    }
+
+    public SteeringComponent(float stopDistance) {
+        this.stopDistance = stopDistance;
+    }
+
+    public float getStopDistance() {
+        return stopDistance;
+    }
+
+    public void setStopDistance(float stopDistance) {
+        this.stopDistance = stopDistance;
+    }
+
+    /**
+     * Sends the entity to a tile instead of after the player.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     */
+    public void setTarget(int x, int y) {
+        if (hasTarget && targetX == x && targetY == y) {
+            return;
+        }
+        clearPath();
+        hasTarget = true;
+        targetX = x;
+        targetY = y;
+    }
+
+    /**
+     * Sends the entity back after the player.
+     */
+    public void clearTarget() {
+        clearPath();
+        hasTarget = false;
+    }
+
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    public PathRequest getPath() {
+        return path;
+    }
+
+    public boolean hasPath() {
+        return hasPath;
+    }
+
+    /**
+     * Starts following the path from its first node once it has been
+     * requested.
+     */
+    public void startPath() {
+        hasPath = true;
+        waypoint = 0;
+    }
+
+    /**
+     * Drops the current path so a new one is requested.
+     */
+    public void clearPath() {
+        if (hasPath) {
+            path.cancel();
+        }
+        hasPath = false;
+        waypoint = 0;
+    }
+
+    public int getWaypoint() {
+        return waypoint;
+    }
+
+    public void nextWaypoint() {
+        waypoint++;
+    }
+}
@@ -36,4 +36,13 @@ public class TextureComponent implements Component {
     public TextureRegion getTexture() {
         return texture;
     }
+
+    /**
+     * Swaps the texture being drawn, e.g. when a pooled entity is reused.
+     *
+     * @param texture The Texture to store in the component.
+     */
+    public void setTexture(TextureRegion texture) {
+        this.texture = texture;
+    }
 }
@@ -0,0 +1,156 @@
+package xyz.vec3d.game.entities.components;
+
+import com.badlogic.ashley.core.Entity;
+
+/**
+ * Created by Daron on 6/7/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Dense storage for the positions and velocities of moving entities. Each
+ * moving entity is given a slot and its data lives in parallel float arrays
+ * at that index, so the {@link xyz.vec3d.game.systems.MovementSystem} can step
+ * every entity in one pass over a handful of flat arrays instead of following
+ * references from each entity to its components and their vectors.
+ *
+ * While an entity has a slot its {@link PositionComponent} and
+ * {@link VelocityComponent} act as views of the store. Slots are kept packed:
+ * removing an entity moves the entity in the last slot into the freed one.
+ */
+public class TransformStore {
+
+    /**
+     * Per slot data. Only the first {@link #size()} entries are in use.
+     */
+    public float[] x;
+    public float[] y;
+    public float[] previousX;
+    public float[] previousY;
+    public float[] velocityX;
+    public float[] velocityY;
+
+    /**
+     * Size of each slot's hit box, used when moving against the map.
+     */
+    public float[] width;
+    public float[] height;
+
+    private Entity[] entities;
+    private PositionComponent[] positions;
+    private VelocityComponent[] velocities;
+
+    private int size;
+
+    public TransformStore() {
+        this(64);
+    }
+
+    /**
+     * Creates a store with room for a number of entities. The store grows if
+     * more are added.
+     *
+     * @param capacity The initial number of slots.
+     */
+    public TransformStore(int capacity) {
+        resize(Math.max(1, capacity));
+    }
+
+    /**
+     * Moves an entity's position and velocity into the store.
+     *
+     * @param entity The entity being added.
+     * @param position The entity's position component.
+     * @param velocity The entity's velocity component.
+     * @param boxWidth Width of the entity's hit box.
+     * @param boxHeight Height of the entity's hit box.
+     */
+    public void add(Entity entity, PositionComponent position, VelocityComponent velocity,
+                    float boxWidth, float boxHeight) {
+        if (position.isBound()) {
+            return;
+        }
+        if (size == x.length) {
+            resize(size * 2);
+        }
+        int slot = size++;
+        entities[slot] = entity;
+        positions[slot] = position;
+        velocities[slot] = velocity;
+        width[slot] = boxWidth;
+        height[slot] = boxHeight;
+        position.bind(this, slot);
+        velocity.bind(this, slot);
+    }
+
+    /**
+     * Moves an entity's position and velocity back into its components and
+     * frees its slot.
+     *
+     * @param position The position component of the entity being removed.
+     */
+    public void remove(PositionComponent position) {
+        if (position == null || position.getStore() != this) {
+            return;
+        }
+        int slot = position.getSlot();
+        position.unbind();
+        velocities[slot].unbind();
+        int last = --size;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            previousX[slot] = previousX[last];
+            previousY[slot] = previousY[last];
+            velocityX[slot] = velocityX[last];
+            velocityY[slot] = velocityY[last];
+            width[slot] = width[last];
+            height[slot] = height[last];
+            entities[slot] = entities[last];
+            positions[slot] = positions[last];
+            velocities[slot] = velocities[last];
+            positions[slot].setSlot(slot);
+            velocities[slot].setSlot(slot);
+        }
+        entities[last] = null;
+        positions[last] = null;
+        velocities[last] = null;
+    }
+
+    public Entity getEntity(int slot) {
+        return entities[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        previousX = copy(previousX, capacity);
+        previousY = copy(previousY, capacity);
+        velocityX = copy(velocityX, capacity);
+        velocityY = copy(velocityY, capacity);
+        width = copy(width, capacity);
+        height = copy(height, capacity);
+        Entity[] newEntities = new Entity[capacity];
+        PositionComponent[] newPositions = new PositionComponent[capacity];
+        VelocityComponent[] newVelocities = new VelocityComponent[capacity];
+        if (entities != null) {
+            System.arraycopy(entities, 0, newEntities, 0, size);
+            System.arraycopy(positions, 0, newPositions, 0, size);
+            System.arraycopy(velocities, 0, newVelocities, 0, size);
+        }
+        entities = newEntities;
+        positions = newPositions;
+        velocities = newVelocities;
+    }
+
+    private float[] copy(float[] array, int capacity) {
+        float[] newArray = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, newArray, 0, size);
+        }
+        return newArray;
+    }
+}
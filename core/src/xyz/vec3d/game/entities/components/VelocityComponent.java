@@ -11,6 +11,10 @@ import com.badlogic.gdx.math.Vector2;
  * Velocity component for entities. Initially is 0,0 meaning the entity is not
  * moving in any direction. Positive x component values indicate moving to the
  * right and positive y component values indicate moving upwards.
+ *
+ * Like the {@link PositionComponent} this component becomes a view of a slot
+ * in a {@link TransformStore} while the entity is stored there, in which case
+ * the velocity must be changed with {@link #setVelocity(float, float)}.
  */
 public class VelocityComponent implements Component {
 
@@ -19,6 +23,12 @@ public class VelocityComponent implements Component {
      */
     private Vector2 velocity;
 
+    /**
+     * The store holding the velocity while the entity is in it, else null.
+     */
+    private TransformStore store;
+    private int slot = -1;
+
     /**
      * Creates a new velocity component for an entity such that the entity is not
      * moving in any direction.
@@ -41,6 +51,55 @@ public class VelocityComponent implements Component {
         if (velocity == null) {
             return new Vector2(0, 0);
         }
+        if (store != null) {
+            velocity.set(store.velocityX[slot], store.velocityY[slot]);
+        }
         return velocity;
     }
+
+    public float getX() {
+        return store != null ? store.velocityX[slot] : velocity.x;
+    }
+
+    public float getY() {
+        return store != null ? store.velocityY[slot] : velocity.y;
+    }
+
+    /**
+     * Changes the entity's velocity.
+     *
+     * @param x The new x component.
+     * @param y The new y component.
+     */
+    public void setVelocity(float x, float y) {
+        if (store != null) {
+            store.velocityX[slot] = x;
+            store.velocityY[slot] = y;
+            return;
+        }
+        velocity.set(x, y);
+    }
+
+    /**
+     * Moves the velocity into a slot of a {@link TransformStore}.
+     */
+    void bind(TransformStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        store.velocityX[slot] = velocity.x;
+        store.velocityY[slot] = velocity.y;
+    }
+
+    /**
+     * Copies the velocity back out of the store it was bound to.
+     */
+    void unbind() {
+        velocity.set(store.velocityX[slot], store.velocityY[slot]);
+        store = null;
+        slot = -1;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
 }
@@ -0,0 +1,25 @@
+package xyz.vec3d.game.entities.listeners;
+
+import com.badlogic.gdx.utils.Array;
+
+import xyz.vec3d.game.entities.PocketRogueEntity;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Listens for the dead entities removed at the end of each tick by the
+ * {@link xyz.vec3d.game.systems.DeathSweepSystem}. All of a tick's entities
+ * arrive together, after they have left the engine.
+ */
+public interface EntityRemovalListener {
+
+    /**
+     * Called once per tick in which entities died.
+     *
+     * @param entities The removed entities. Only valid during the call, as
+     *                 pooled entities are reused afterwards.
+     */
+    void entitiesRemoved(Array<PocketRogueEntity> entities);
+}
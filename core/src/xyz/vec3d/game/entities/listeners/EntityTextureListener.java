@@ -15,7 +15,8 @@ import xyz.vec3d.game.utils.Utils;
  * All rights reserved
  *
  * Listens for when an entity is added to the engine and then creates a texture
- * component for it.
+ * component for it. Pooled entities keep their texture component between
+ * spawns, so entities that already have one are left alone.
  */
 public class EntityTextureListener implements EntityListener {
 
@@ -29,7 +30,8 @@ public class EntityTextureListener implements EntityListener {
     @Override
     public void entityAdded(Entity entity) {
         if (entity instanceof PocketRogueEntity) {
-            if (entity instanceof WorldItem) {
+            if (entity instanceof WorldItem
+                    || entity.getComponent(TextureComponent.class) != null) {
                 return;
             }
             String name = ((PocketRogueEntity) entity).getName();
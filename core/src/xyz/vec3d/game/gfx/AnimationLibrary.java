@@ -0,0 +1,125 @@
+package xyz.vec3d.game.gfx;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import xyz.vec3d.game.PocketRogue;
+
+/**
+ * Created by Daron on 6/11/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Builds the animations for each animation sheet once and hands out the same
+ * objects to every entity that uses the sheet. Splitting a sheet and building
+ * its animations used to happen in every entity's constructor, which made
+ * spawning a wave of enemies stall a frame.
+ *
+ * The returned animations are shared, so they must never be modified. Each
+ * entity keeps its own state time in its
+ * {@link xyz.vec3d.game.entities.components.AnimationComponent}.
+ */
+public class AnimationLibrary {
+
+    /**
+     * Indices into a movement animation set.
+     */
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int UP = 2;
+    public static final int DOWN = 3;
+    public static final int IDLE = 4;
+
+    /**
+     * Rows of a movement sheet, from the top of the sheet down.
+     */
+    private static final int ROW_DOWN = 0;
+    private static final int ROW_UP = 1;
+    private static final int ROW_RIGHT = 2;
+    private static final int ROW_LEFT = 3;
+
+    /**
+     * Sheets already split into frames, keyed by sheet and frame size.
+     */
+    private static final ObjectMap<String, TextureRegion[][]> frames = new ObjectMap<>();
+
+    /**
+     * Animation sets already built, keyed by sheet and layout.
+     */
+    private static final ObjectMap<String, Animation[]> animationSets = new ObjectMap<>();
+
+    /**
+     * Returns the frames of a sheet split into a grid.
+     *
+     * @param sheet Name of the sheet in the sprite atlas.
+     * @param frameWidth Width of a frame in pixels.
+     * @param frameHeight Height of a frame in pixels.
+     *
+     * @return The frames by row then column.
+     */
+    public static TextureRegion[][] getFrames(String sheet, int frameWidth, int frameHeight) {
+        String key = sheet + ":" + frameWidth + "x" + frameHeight;
+        TextureRegion[][] sheetFrames = frames.get(key);
+        if (sheetFrames == null) {
+            sheetFrames = PocketRogue.getRegion(sheet).split(frameWidth, frameHeight);
+            frames.put(key, sheetFrames);
+        }
+        return sheetFrames;
+    }
+
+    /**
+     * Returns the movement animations for a sheet laid out with one row per
+     * direction: down, up, right and left from the top. The idle animation
+     * uses the first frames of the down row. The animations are indexed by
+     * {@link #LEFT}, {@link #RIGHT}, {@link #UP}, {@link #DOWN} and
+     * {@link #IDLE}.
+     *
+     * @param sheet Name of the sheet in the sprite atlas.
+     * @param frameWidth Width of a frame in pixels.
+     * @param frameHeight Height of a frame in pixels.
+     * @param frameDuration Seconds each frame of the walking animations is shown.
+     * @param idleFrames Number of frames in the idle animation, or 0 to use
+     *                   the whole down row.
+     * @param idleFrameDuration Seconds each frame of the idle animation is shown.
+     *
+     * @return The shared animation set. Must not be modified.
+     */
+    public static Animation[] getMovementAnimations(String sheet, int frameWidth, int frameHeight,
+                                                    float frameDuration, int idleFrames,
+                                                    float idleFrameDuration) {
+        String key = sheet + ":" + frameWidth + "x" + frameHeight + ":" + frameDuration
+                + ":" + idleFrames + ":" + idleFrameDuration;
+        Animation[] animations = animationSets.get(key);
+        if (animations != null) {
+            return animations;
+        }
+        TextureRegion[][] sheetFrames = getFrames(sheet, frameWidth, frameHeight);
+        TextureRegion[] idle = sheetFrames[ROW_DOWN];
+        if (idleFrames > 0 && idleFrames < idle.length) {
+            idle = new TextureRegion[idleFrames];
+            System.arraycopy(sheetFrames[ROW_DOWN], 0, idle, 0, idleFrames);
+        }
+        animations = new Animation[5];
+        animations[LEFT] = new Animation(frameDuration, sheetFrames[ROW_LEFT]);
+        animations[RIGHT] = new Animation(frameDuration, sheetFrames[ROW_RIGHT]);
+        animations[UP] = new Animation(frameDuration, sheetFrames[ROW_UP]);
+        animations[DOWN] = new Animation(frameDuration, sheetFrames[ROW_DOWN]);
+        animations[IDLE] = new Animation(idleFrameDuration, idle);
+        //Looping is set up front so drawing never has to switch the play mode.
+        for (Animation animation : animations) {
+            animation.setPlayMode(Animation.PlayMode.LOOP);
+        }
+        animationSets.put(key, animations);
+        return animations;
+    }
+
+    /**
+     * Drops every cached frame and animation, e.g. after the sprite atlas has
+     * been reloaded.
+     */
+    public static void clear() {
+        frames.clear();
+        animationSets.clear();
+    }
+}
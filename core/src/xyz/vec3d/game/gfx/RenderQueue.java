@@ -0,0 +1,206 @@
+package xyz.vec3d.game.gfx;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Comparator;
+
+/**
+ * Created by Daron on 6/10/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Collects the sprites to draw for a frame so they can be submitted to a
+ * {@link SpriteBatch} in an order that keeps texture switches to a minimum.
+ * A {@link SpriteBatch} has to flush every time it is handed a different
+ * texture, so drawing entities in whatever order the engine holds them swaps
+ * textures on almost every sprite. Commands are instead sorted by layer, then
+ * by texture, and commands that tie keep the order they were added in.
+ *
+ * Commands are pooled and the queue is reused every frame, so queuing sprites
+ * doesn't create garbage.
+ */
+public class RenderQueue {
+
+    /**
+     * Things lying on the ground such as dropped items. Layers are spaced out
+     * so that sprites making up one entity can be stacked on the layers in
+     * between, e.g. a weapon on {@code LAYER_ACTORS + 1} over a body on
+     * {@code LAYER_ACTORS}.
+     */
+    public static final int LAYER_GROUND = 0;
+
+    /**
+     * Players, enemies and projectiles.
+     */
+    public static final int LAYER_ACTORS = 10;
+
+    /**
+     * Health bars and anything else drawn over the actors.
+     */
+    public static final int LAYER_OVERLAY = 20;
+
+    private static final Comparator<DrawCommand> ORDER = new Comparator<DrawCommand>() {
+        @Override
+        public int compare(DrawCommand a, DrawCommand b) {
+            if (a.layer != b.layer) {
+                return a.layer < b.layer ? -1 : 1;
+            }
+            int textureA = a.getTexture().getTextureObjectHandle();
+            int textureB = b.getTexture().getTextureObjectHandle();
+            return textureA < textureB ? -1 : (textureA == textureB ? 0 : 1);
+        }
+    };
+
+    private final Array<DrawCommand> commands = new Array<DrawCommand>(false, 256);
+
+    private final Pool<DrawCommand> pool = new Pool<DrawCommand>(256) {
+        @Override
+        protected DrawCommand newObject() {
+            return new DrawCommand();
+        }
+    };
+
+    /**
+     * Number of sprites and texture changes in the last flush.
+     */
+    private int lastCommandCount;
+    private int lastTextureSwitches;
+
+    /**
+     * Queues a region to be drawn.
+     *
+     * @param layer The layer to draw on.
+     * @param region The region to draw.
+     * @param x X coordinate of the bottom left corner.
+     * @param y Y coordinate of the bottom left corner.
+     * @param width Width in world units.
+     * @param height Height in world units.
+     */
+    public void add(int layer, TextureRegion region, float x, float y, float width,
+                    float height) {
+        add(layer, region, x, y, 0, 0, width, height, 0);
+    }
+
+    /**
+     * Queues a rotated region to be drawn.
+     *
+     * @param layer The layer to draw on.
+     * @param region The region to draw.
+     * @param x X coordinate of the bottom left corner.
+     * @param y Y coordinate of the bottom left corner.
+     * @param originX X coordinate of the point rotated around, relative to x.
+     * @param originY Y coordinate of the point rotated around, relative to y.
+     * @param width Width in world units.
+     * @param height Height in world units.
+     * @param rotation Rotation in degrees counter clockwise.
+     */
+    public void add(int layer, TextureRegion region, float x, float y, float originX,
+                    float originY, float width, float height, float rotation) {
+        DrawCommand command = pool.obtain();
+        command.layer = layer;
+        command.region = region;
+        command.x = x;
+        command.y = y;
+        command.originX = originX;
+        command.originY = originY;
+        command.width = width;
+        command.height = height;
+        command.rotation = rotation;
+        commands.add(command);
+    }
+
+    /**
+     * Queues a whole texture to be drawn.
+     *
+     * @param layer The layer to draw on.
+     * @param texture The texture to draw.
+     * @param x X coordinate of the bottom left corner.
+     * @param y Y coordinate of the bottom left corner.
+     * @param width Width in world units.
+     * @param height Height in world units.
+     */
+    public void add(int layer, Texture texture, float x, float y, float width, float height) {
+        DrawCommand command = pool.obtain();
+        command.layer = layer;
+        command.texture = texture;
+        command.x = x;
+        command.y = y;
+        command.width = width;
+        command.height = height;
+        commands.add(command);
+    }
+
+    /**
+     * Sorts the queued commands, draws them on a batch that has already been
+     * begun and empties the queue.
+     *
+     * @param batch The batch to draw on.
+     */
+    public void flush(SpriteBatch batch) {
+        commands.sort(ORDER);
+        Texture lastTexture = null;
+        int textureSwitches = 0;
+        for (int i = 0; i < commands.size; i++) {
+            DrawCommand command = commands.get(i);
+            Texture texture = command.getTexture();
+            if (texture != lastTexture) {
+                textureSwitches++;
+                lastTexture = texture;
+            }
+            if (command.region == null) {
+                batch.draw(command.texture, command.x, command.y, command.width, command.height);
+            } else if (command.rotation == 0) {
+                batch.draw(command.region, command.x, command.y, command.width, command.height);
+            } else {
+                batch.draw(command.region, command.x, command.y, command.originX,
+                        command.originY, command.width, command.height, 1, 1, command.rotation);
+            }
+        }
+        lastCommandCount = commands.size;
+        lastTextureSwitches = textureSwitches;
+        pool.freeAll(commands);
+        commands.clear();
+    }
+
+    public int getLastCommandCount() {
+        return lastCommandCount;
+    }
+
+    public int getLastTextureSwitches() {
+        return lastTextureSwitches;
+    }
+
+    /**
+     * A single queued sprite.
+     */
+    private static class DrawCommand implements Pool.Poolable {
+
+        private int layer;
+        private TextureRegion region;
+        private Texture texture;
+        private float x;
+        private float y;
+        private float originX;
+        private float originY;
+        private float width;
+        private float height;
+        private float rotation;
+
+        private Texture getTexture() {
+            return region != null ? region.getTexture() : texture;
+        }
+
+        @Override
+        public void reset() {
+            region = null;
+            texture = null;
+            originX = 0;
+            originY = 0;
+            rotation = 0;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package xyz.vec3d.game.gfx;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.StringBuilder;
 
@@ -16,12 +15,12 @@ import xyz.vec3d.game.utils.Logger;
  */
 public class SpriteSheet {
 
-    private Texture internalTexture;
+    private TextureRegion internalRegion;
 
     private static final int ICON_SIZE = 16;
 
     public SpriteSheet(String name) {
-        internalTexture = PocketRogue.getAsset(name);
+        internalRegion = PocketRogue.getRegion(name);
     }
 
     public TextureRegion getTextureFromSheet(int x, int y) {
@@ -29,7 +28,7 @@ public class SpriteSheet {
     }
 
     private TextureRegion getTextureFromSheet(int x, int y, int width, int height) {
-        return new TextureRegion(internalTexture, x * ICON_SIZE,
+        return new TextureRegion(internalRegion, x * ICON_SIZE,
                 y * ICON_SIZE, width, height);
     }
 }
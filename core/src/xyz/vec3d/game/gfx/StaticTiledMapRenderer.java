@@ -0,0 +1,514 @@
+package xyz.vec3d.game.gfx;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Created by Daron on 6/11/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Renderer for orthogonal maps whose tiles rarely change. The
+ * OrthogonalTiledMapRenderer builds the vertices for every visible tile each
+ * frame. This renderer instead bakes every {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE}
+ * block of tiles into a {@link SpriteCache} once, so drawing the map costs one
+ * draw call per visible chunk and no vertex work.
+ *
+ * A chunk is only rebuilt after {@link #invalidate(int, int)} is called for
+ * one of its tiles. Animated tiles can't be baked and are drawn each frame with
+ * a {@link SpriteBatch} instead, along with any image layers.
+ */
+public class StaticTiledMapRenderer implements TiledMapRenderer, Disposable {
+
+    /**
+     * Width and height of a chunk in tiles.
+     */
+    public static final int CHUNK_SIZE = 16;
+
+    /**
+     * Floats per vertex: x, y, color, u and v.
+     */
+    private static final int VERTEX_SIZE = 5;
+
+    /**
+     * The cache draws without indices, so every tile takes two triangles of
+     * three vertices each.
+     */
+    private static final int TILE_SIZE = 6 * VERTEX_SIZE;
+
+    /**
+     * Corners of a tile making up its two triangles.
+     */
+    private static final int[] TRIANGLE_CORNERS = {0, 1, 2, 2, 3, 0};
+
+    private final TiledMap map;
+
+    /**
+     * World units per pixel of the map.
+     */
+    private final float unitScale;
+
+    private final SpriteCache cache;
+
+    /**
+     * Draws the tiles and layers that can't be cached.
+     */
+    private final SpriteBatch batch;
+
+    private final ObjectMap<TiledMapTileLayer, LayerChunks> layerChunks = new ObjectMap<>();
+
+    /**
+     * Texture used for the empty tiles that reserve room in a chunk.
+     */
+    private Texture fillTexture;
+
+    private final Rectangle viewBounds = new Rectangle();
+
+    /**
+     * Corners of the tile being built, in the order used by {@link SpriteBatch}.
+     */
+    private final float[] quad = new float[4 * VERTEX_SIZE];
+
+    /**
+     * The same tile split into two triangles for the cache.
+     */
+    private final float[] triangles = new float[TILE_SIZE];
+
+    /**
+     * Scratch space for the corners of a tile while it is built.
+     */
+    private final float[] cornersU = new float[4];
+    private final float[] cornersV = new float[4];
+
+    private int chunksDrawn;
+    private int lastChunksDrawn;
+
+    /**
+     * Creates a renderer and bakes every chunk of the map's tile layers.
+     *
+     * @param map The map to draw.
+     * @param unitScale World units per pixel of the map.
+     */
+    public StaticTiledMapRenderer(TiledMap map, float unitScale) {
+        this.map = map;
+        this.unitScale = unitScale;
+        this.batch = new SpriteBatch();
+        int capacity = 0;
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer) {
+                TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+                capacity += tileLayer.getWidth() * tileLayer.getHeight();
+            }
+        }
+        this.cache = new SpriteCache(Math.max(1, capacity), false);
+        findFillTexture();
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer) {
+                TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+                layerChunks.put(tileLayer, new LayerChunks(tileLayer));
+            }
+        }
+    }
+
+    private void findFillTexture() {
+        for (TiledMapTileSet tileSet : map.getTileSets()) {
+            for (TiledMapTile tile : tileSet) {
+                if (tile.getTextureRegion() != null) {
+                    fillTexture = tile.getTextureRegion().getTexture();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the chunk holding a tile as needing to be rebuilt. Must be called
+     * after changing a cell, since the cached chunk still shows the old tile.
+     * Chunks are rebuilt the next time they are drawn.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     */
+    public void invalidate(int x, int y) {
+        for (LayerChunks chunks : layerChunks.values()) {
+            chunks.invalidate(x, y);
+        }
+    }
+
+    @Override
+    public void setView(OrthographicCamera camera) {
+        batch.setProjectionMatrix(camera.combined);
+        cache.setProjectionMatrix(camera.combined);
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        viewBounds.set(camera.position.x - width / 2, camera.position.y - height / 2,
+                width, height);
+    }
+
+    @Override
+    public void setView(Matrix4 projectionMatrix, float viewBoundsX, float viewBoundsY,
+                        float viewBoundsWidth, float viewBoundsHeight) {
+        batch.setProjectionMatrix(projectionMatrix);
+        cache.setProjectionMatrix(projectionMatrix);
+        viewBounds.set(viewBoundsX, viewBoundsY, viewBoundsWidth, viewBoundsHeight);
+    }
+
+    @Override
+    public void render() {
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+        chunksDrawn = 0;
+        for (MapLayer layer : map.getLayers()) {
+            renderLayer(layer);
+        }
+        lastChunksDrawn = chunksDrawn;
+    }
+
+    @Override
+    public void render(int[] layers) {
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+        chunksDrawn = 0;
+        MapLayers mapLayers = map.getLayers();
+        for (int layerIndex : layers) {
+            renderLayer(mapLayers.get(layerIndex));
+        }
+        lastChunksDrawn = chunksDrawn;
+    }
+
+    private void renderLayer(MapLayer layer) {
+        if (!layer.isVisible()) {
+            return;
+        }
+        if (layer instanceof TiledMapTileLayer) {
+            renderTileLayer((TiledMapTileLayer) layer);
+        } else if (layer instanceof TiledMapImageLayer) {
+            renderImageLayer((TiledMapImageLayer) layer);
+        } else {
+            renderObjects(layer);
+        }
+    }
+
+    /**
+     * Draws the visible chunks of a tile layer, rebuilding any that were
+     * invalidated, then draws the layer's animated tiles over them.
+     *
+     * @param layer The layer to draw.
+     */
+    @Override
+    public void renderTileLayer(TiledMapTileLayer layer) {
+        LayerChunks chunks = layerChunks.get(layer);
+        if (chunks == null) {
+            return;
+        }
+        chunks.rebuildDirty();
+        float chunkWidth = layer.getTileWidth() * unitScale * CHUNK_SIZE;
+        float chunkHeight = layer.getTileHeight() * unitScale * CHUNK_SIZE;
+        int startX = Math.max(0, (int) (viewBounds.x / chunkWidth));
+        int startY = Math.max(0, (int) (viewBounds.y / chunkHeight));
+        int endX = Math.min(chunks.chunksX - 1,
+                (int) ((viewBounds.x + viewBounds.width) / chunkWidth));
+        int endY = Math.min(chunks.chunksY - 1,
+                (int) ((viewBounds.y + viewBounds.height) / chunkHeight));
+        if (startX > endX || startY > endY) {
+            return;
+        }
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.begin();
+        boolean hasAnimatedTiles = false;
+        for (int chunkY = startY; chunkY <= endY; chunkY++) {
+            for (int chunkX = startX; chunkX <= endX; chunkX++) {
+                int chunk = chunkY * chunks.chunksX + chunkX;
+                if (chunks.cacheIds[chunk] != -1) {
+                    cache.draw(chunks.cacheIds[chunk]);
+                    chunksDrawn++;
+                }
+                hasAnimatedTiles |= chunks.animatedTiles[chunk].size > 0;
+            }
+        }
+        cache.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+
+        if (!hasAnimatedTiles) {
+            return;
+        }
+        float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+        batch.begin();
+        for (int chunkY = startY; chunkY <= endY; chunkY++) {
+            for (int chunkX = startX; chunkX <= endX; chunkX++) {
+                IntArray animated = chunks.animatedTiles[chunkY * chunks.chunksX + chunkX];
+                for (int i = 0; i < animated.size; i++) {
+                    int x = animated.get(i) % layer.getWidth();
+                    int y = animated.get(i) / layer.getWidth();
+                    Cell cell = layer.getCell(x, y);
+                    if (cell == null || cell.getTile() == null) {
+                        continue;
+                    }
+                    TextureRegion region = buildQuad(layer, cell, x, y, color);
+                    batch.draw(region.getTexture(), quad, 0, quad.length);
+                }
+            }
+        }
+        batch.end();
+    }
+
+    @Override
+    public void renderImageLayer(TiledMapImageLayer layer) {
+        TextureRegion region = layer.getTextureRegion();
+        if (region == null) {
+            return;
+        }
+        batch.begin();
+        batch.setColor(1, 1, 1, layer.getOpacity());
+        batch.draw(region, layer.getX() * unitScale, layer.getY() * unitScale,
+                region.getRegionWidth() * unitScale, region.getRegionHeight() * unitScale);
+        batch.setColor(Color.WHITE);
+        batch.end();
+    }
+
+    @Override
+    public void renderObjects(MapLayer layer) {
+        for (MapObject object : layer.getObjects()) {
+            renderObject(object);
+        }
+    }
+
+    @Override
+    public void renderObject(MapObject object) {
+
+    }
+
+    /**
+     * Writes the corners of a tile into {@link #quad}, taking the cell's flips
+     * and rotation into account.
+     *
+     * @return The region of the tile.
+     */
+    private TextureRegion buildQuad(TiledMapTileLayer layer, Cell cell, int x, int y,
+                                    float color) {
+        TiledMapTile tile = cell.getTile();
+        TextureRegion region = tile.getTextureRegion();
+        float x1 = x * layer.getTileWidth() * unitScale + tile.getOffsetX() * unitScale;
+        float y1 = y * layer.getTileHeight() * unitScale + tile.getOffsetY() * unitScale;
+        float x2 = x1 + region.getRegionWidth() * unitScale;
+        float y2 = y1 + region.getRegionHeight() * unitScale;
+        //Corners go bottom left, top left, top right, bottom right.
+        float[] u = cornersU;
+        float[] v = cornersV;
+        u[0] = u[1] = region.getU();
+        u[2] = u[3] = region.getU2();
+        v[0] = v[3] = region.getV2();
+        v[1] = v[2] = region.getV();
+        if (cell.getFlipHorizontally()) {
+            swap(u, 0, 2);
+            swap(u, 1, 3);
+        }
+        if (cell.getFlipVertically()) {
+            swap(v, 0, 2);
+            swap(v, 1, 3);
+        }
+        switch (cell.getRotation()) {
+            case Cell.ROTATE_90:
+                rotate(u, 1);
+                rotate(v, 1);
+                break;
+            case Cell.ROTATE_180:
+                rotate(u, 2);
+                rotate(v, 2);
+                break;
+            case Cell.ROTATE_270:
+                rotate(u, 3);
+                rotate(v, 3);
+                break;
+        }
+        for (int corner = 0; corner < 4; corner++) {
+            int offset = corner * VERTEX_SIZE;
+            quad[offset] = corner < 2 ? x1 : x2;
+            quad[offset + 1] = corner == 0 || corner == 3 ? y1 : y2;
+            quad[offset + 2] = color;
+            quad[offset + 3] = u[corner];
+            quad[offset + 4] = v[corner];
+        }
+        return region;
+    }
+
+    private static void swap(float[] values, int a, int b) {
+        float temp = values[a];
+        values[a] = values[b];
+        values[b] = temp;
+    }
+
+    /**
+     * Shifts the texture coordinates of the corners so each corner takes the
+     * coordinates of the one a number of steps after it.
+     */
+    private static void rotate(float[] values, int steps) {
+        for (int step = 0; step < steps; step++) {
+            float first = values[0];
+            values[0] = values[1];
+            values[1] = values[2];
+            values[2] = values[3];
+            values[3] = first;
+        }
+    }
+
+    /**
+     * Splits {@link #quad} into the two triangles the cache expects.
+     */
+    private void buildTriangles() {
+        for (int i = 0; i < TRIANGLE_CORNERS.length; i++) {
+            System.arraycopy(quad, TRIANGLE_CORNERS[i] * VERTEX_SIZE, triangles,
+                    i * VERTEX_SIZE, VERTEX_SIZE);
+        }
+    }
+
+    /**
+     * Returns the number of chunks drawn by the last call to {@link #render()}.
+     */
+    public int getLastChunksDrawn() {
+        return lastChunksDrawn;
+    }
+
+    @Override
+    public void dispose() {
+        cache.dispose();
+        batch.dispose();
+    }
+
+    /**
+     * The baked chunks of one tile layer.
+     */
+    private class LayerChunks {
+
+        private final TiledMapTileLayer layer;
+        private final int chunksX;
+        private final int chunksY;
+
+        /**
+         * Cache id of each chunk, row by row.
+         */
+        private final int[] cacheIds;
+
+        /**
+         * Animated tiles in each chunk, stored as y * width + x.
+         */
+        private final IntArray[] animatedTiles;
+
+        private final boolean[] dirty;
+        private boolean anyDirty;
+
+        private LayerChunks(TiledMapTileLayer layer) {
+            this.layer = layer;
+            this.chunksX = (layer.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            this.chunksY = (layer.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            this.cacheIds = new int[chunksX * chunksY];
+            this.animatedTiles = new IntArray[chunksX * chunksY];
+            this.dirty = new boolean[chunksX * chunksY];
+            for (int chunk = 0; chunk < cacheIds.length; chunk++) {
+                animatedTiles[chunk] = new IntArray();
+                cache.beginCache();
+                //A cached chunk can never hold more tiles than it was first
+                //built with, so room is kept for every cell it covers.
+                int reserved = build(chunk, true);
+                cacheIds[chunk] = cache.endCache();
+                if (reserved == 0) {
+                    //Nothing to draw and no texture to reserve room with.
+                    cacheIds[chunk] = -1;
+                }
+            }
+        }
+
+        private void invalidate(int x, int y) {
+            if (x < 0 || y < 0 || x >= layer.getWidth() || y >= layer.getHeight()) {
+                return;
+            }
+            dirty[(y / CHUNK_SIZE) * chunksX + x / CHUNK_SIZE] = true;
+            anyDirty = true;
+        }
+
+        private void rebuildDirty() {
+            if (!anyDirty) {
+                return;
+            }
+            for (int chunk = 0; chunk < dirty.length; chunk++) {
+                if (dirty[chunk] && cacheIds[chunk] != -1) {
+                    cache.beginCache(cacheIds[chunk]);
+                    build(chunk, false);
+                    cache.endCache();
+                }
+                dirty[chunk] = false;
+            }
+            anyDirty = false;
+        }
+
+        /**
+         * Adds the static tiles of a chunk to the cache being built and notes
+         * down its animated tiles.
+         *
+         * @param chunk Index of the chunk.
+         * @param reserve True to pad the chunk with empty tiles up to one per
+         *                cell.
+         *
+         * @return Number of tiles added, including padding.
+         */
+        private int build(int chunk, boolean reserve) {
+            int startX = (chunk % chunksX) * CHUNK_SIZE;
+            int startY = (chunk / chunksX) * CHUNK_SIZE;
+            int endX = Math.min(layer.getWidth(), startX + CHUNK_SIZE);
+            int endY = Math.min(layer.getHeight(), startY + CHUNK_SIZE);
+            float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+            IntArray animated = animatedTiles[chunk];
+            animated.clear();
+            int added = 0;
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    Cell cell = layer.getCell(x, y);
+                    if (cell == null || cell.getTile() == null) {
+                        continue;
+                    }
+                    if (cell.getTile() instanceof AnimatedTiledMapTile) {
+                        animated.add(y * layer.getWidth() + x);
+                        continue;
+                    }
+                    TextureRegion region = buildQuad(layer, cell, x, y, color);
+                    buildTriangles();
+                    cache.add(region.getTexture(), triangles, 0, TILE_SIZE);
+                    added++;
+                }
+            }
+            if (reserve && fillTexture != null) {
+                //Zero sized tiles draw nothing.
+                Arrays.fill(triangles, 0);
+                int cells = (endX - startX) * (endY - startY);
+                for (; added < cells; added++) {
+                    cache.add(fillTexture, triangles, 0, TILE_SIZE);
+                }
+            }
+            return added;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.entities.Player;
+import xyz.vec3d.game.gfx.RenderQueue;
 import xyz.vec3d.game.messages.Message;
+import xyz.vec3d.game.systems.RenderingSystem;
 import xyz.vec3d.game.utils.Utils;
 
 /**
@@ -25,6 +28,8 @@ public class GuiDebug extends Gui {
     private Label playerPosLabel;
     private Label playerDirectionLabel;
     private Label playerDirectionAngleLabel;
+    private Label drawCallsLabel;
+    private Label assetLookupsLabel;
 
     public GuiDebug(Engine engine, Player player) {
         this.engine = engine;
@@ -42,11 +47,15 @@ public class GuiDebug extends Gui {
         playerPosLabel = new Label("Player Position: ", skin);
         playerDirectionLabel = new Label("Player Direction: ", skin);
         playerDirectionAngleLabel = new Label("Player Direction (Angle): ", skin);
+        drawCallsLabel = new Label("Draw Calls: ", skin);
+        assetLookupsLabel = new Label("Asset Lookups: ", skin);
 
         //Add labels
         table.add(playerPosLabel).row();
         table.add(playerDirectionLabel).row();
         table.add(playerDirectionAngleLabel).row();
+        table.add(drawCallsLabel).row();
+        table.add(assetLookupsLabel).row();
         table.setDebug(true);
         table.bottom().left();
         getStage().addActor(table);
@@ -67,6 +76,16 @@ public class GuiDebug extends Gui {
         playerDirectionAngleLabel.setText(Utils.modifyDisplayValue(playerDirectionAngleLabel,
                 direction.angle() + " cos: " + Math.cos(direction.angleRad()) + " sin: "
                         + Math.sin(direction.angleRad())));
+        RenderingSystem renderingSystem = engine.getSystem(RenderingSystem.class);
+        if (renderingSystem != null) {
+            RenderQueue renderQueue = renderingSystem.getRenderQueue();
+            drawCallsLabel.setText(Utils.modifyDisplayValue(drawCallsLabel,
+                    renderingSystem.getLastDrawCalls() + " (" + renderQueue.getLastCommandCount()
+                            + " sprites, " + renderQueue.getLastTextureSwitches()
+                            + " texture switches)"));
+        }
+        assetLookupsLabel.setText(Utils.modifyDisplayValue(assetLookupsLabel,
+                AssetRegistry.getLateLookups()));
     }
 
     @Override
@@ -1,6 +1,5 @@
 package xyz.vec3d.game.gui;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -11,7 +10,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 
 import xyz.vec3d.game.GameScreen;
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.entities.Player;
 import xyz.vec3d.game.model.ItemStack;
 import xyz.vec3d.game.utils.Utils;
@@ -24,7 +23,7 @@ import xyz.vec3d.game.utils.Utils;
 
 public class HotBarDisplay extends Actor {
 
-    private Texture hotBarTexture;
+    private TextureRegion hotBarTexture;
 
     private HotBarItem[] hotBarItems = new HotBarItem[9];
 
@@ -36,8 +35,8 @@ public class HotBarDisplay extends Actor {
     private BitmapFont font;
 
     public HotBarDisplay(Stage stage, GameScreen gameScreen) {
-        hotBarTexture = PocketRogue.getAsset("hotbar.png");
-        setSize(hotBarTexture.getWidth(), hotBarTexture.getHeight());
+        hotBarTexture = AssetRegistry.HOT_BAR.get();
+        setSize(hotBarTexture.getRegionWidth(), hotBarTexture.getRegionHeight());
         addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
@@ -50,8 +49,8 @@ public class HotBarDisplay extends Actor {
         });
         this.stage = stage;
         this.gameScreen = gameScreen;
-        this.skin = PocketRogue.getAsset("uiskin.json");
-        font = PocketRogue.getAsset("default.fnt", false);
+        this.skin = AssetRegistry.UI_SKIN.get();
+        font = AssetRegistry.DEFAULT_FONT.get();
 
         setName("hot_bar_display");
     }
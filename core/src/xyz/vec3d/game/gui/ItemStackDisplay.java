@@ -6,7 +6,7 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Disposable;
 
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.model.ItemStack;
 import xyz.vec3d.game.utils.Utils;
 
@@ -46,7 +46,7 @@ class ItemStackDisplay extends Actor implements Disposable {
         this.itemStack = itemStack;
         //Get the texture.
         itemIcon = Utils.getItemTexture(itemStack);
-        font = PocketRogue.getAssetManager().get("default.fnt", BitmapFont.class);
+        font = AssetRegistry.DEFAULT_FONT.get();
         this.setSize(200, 64);
     }
 
@@ -76,7 +76,6 @@ class ItemStackDisplay extends Actor implements Disposable {
     @Override
     public void dispose() {
         font.dispose();
-        itemIcon.getTexture().dispose();
     }
 
     @Override
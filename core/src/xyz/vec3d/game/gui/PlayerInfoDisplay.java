@@ -1,16 +1,16 @@
 package xyz.vec3d.game.gui;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 
 import java.util.ArrayList;
 
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.messages.IMessageReceiver;
 import xyz.vec3d.game.messages.IMessageSender;
 import xyz.vec3d.game.messages.Message;
@@ -27,11 +27,11 @@ import xyz.vec3d.game.utils.Utils;
  */
 public class PlayerInfoDisplay extends Actor implements IMessageReceiver, IMessageSender {
 
-    private Texture playerIcon;
-    private Texture frameBorder;
-    private Texture barBackground;
-    private Texture manaBar;
-    private Texture healthBar;
+    private TextureRegion playerIcon;
+    private TextureRegion frameBorder;
+    private TextureRegion barBackground;
+    private TextureRegion manaBar;
+    private TextureRegion healthBar;
 
     private BitmapFont font;
 
@@ -43,12 +43,12 @@ public class PlayerInfoDisplay extends Actor implements IMessageReceiver, IMessa
     private ArrayList<IMessageReceiver> messageReceivers = new ArrayList<>();
 
     public PlayerInfoDisplay() {
-        playerIcon = PocketRogue.getAsset("playerIcon.png");
-        frameBorder = PocketRogue.getAsset("frameBorder.png");
-        barBackground = PocketRogue.getAsset("barBackground.png");
-        manaBar = PocketRogue.getAsset("manaBar.png");
-        healthBar = PocketRogue.getAsset("healthBar.png");
-        font = PocketRogue.getAsset("default.fnt", false);
+        playerIcon = AssetRegistry.PLAYER_ICON.get();
+        frameBorder = AssetRegistry.FRAME_BORDER.get();
+        barBackground = AssetRegistry.BAR_BACKGROUND.get();
+        manaBar = AssetRegistry.MANA_BAR.get();
+        healthBar = AssetRegistry.HEALTH_BAR.get();
+        font = AssetRegistry.DEFAULT_FONT.get();
         layout = new GlyphLayout();
         addListener(new ClickListener() {
 
@@ -69,18 +69,18 @@ public class PlayerInfoDisplay extends Actor implements IMessageReceiver, IMessa
         //Draw the frames of everything.
         batch.draw(frameBorder, this.getX(), this.getY());
         batch.draw(playerIcon, this.getX() + 4, this.getY() + 4);
-        batch.draw(barBackground, this.getX() + frameBorder.getWidth(),
-                this.getY() + frameBorder.getHeight() - barBackground.getHeight());
-        batch.draw(barBackground, this.getX() + frameBorder.getWidth(),
-                this.getY() + frameBorder.getHeight() - (5 + 2 * barBackground.getHeight()));
+        batch.draw(barBackground, this.getX() + frameBorder.getRegionWidth(),
+                this.getY() + frameBorder.getRegionHeight() - barBackground.getRegionHeight());
+        batch.draw(barBackground, this.getX() + frameBorder.getRegionWidth(),
+                this.getY() + frameBorder.getRegionHeight() - (5 + 2 * barBackground.getRegionHeight()));
 
         //Draw health/mana bars at their % left values.
-        batch.draw(healthBar, this.getX() + frameBorder.getWidth() + 2,
-                this.getY() + frameBorder.getHeight() - barBackground.getHeight() + 2,
-                healthBar.getWidth() * (health / maxHealth), healthBar.getHeight());
-        batch.draw(manaBar, this.getX() + frameBorder.getWidth() + 2,
-                this.getY() + frameBorder.getHeight() - (11 + 2 * manaBar.getHeight()),
-                manaBar.getWidth() * (mana / maxMana), manaBar.getHeight());
+        batch.draw(healthBar, this.getX() + frameBorder.getRegionWidth() + 2,
+                this.getY() + frameBorder.getRegionHeight() - barBackground.getRegionHeight() + 2,
+                healthBar.getRegionWidth() * (health / maxHealth), healthBar.getRegionHeight());
+        batch.draw(manaBar, this.getX() + frameBorder.getRegionWidth() + 2,
+                this.getY() + frameBorder.getRegionHeight() - (11 + 2 * manaBar.getRegionHeight()),
+                manaBar.getRegionWidth() * (mana / maxMana), manaBar.getRegionHeight());
 
         float stringX, stringY;
 
@@ -88,17 +88,17 @@ public class PlayerInfoDisplay extends Actor implements IMessageReceiver, IMessa
 
         layout.setText(font, drawnString);
         stringX = Utils.getPosCenterX(layout.width,
-                barBackground.getWidth(), this.getX() + frameBorder.getWidth());
-        stringY = Utils.getPosCenterY(layout.height, barBackground.getHeight(),
-                this.getY() + frameBorder.getHeight() - barBackground.getHeight()
+                barBackground.getRegionWidth(), this.getX() + frameBorder.getRegionWidth());
+        stringY = Utils.getPosCenterY(layout.height, barBackground.getRegionHeight(),
+                this.getY() + frameBorder.getRegionHeight() - barBackground.getRegionHeight()
                         + font.getCapHeight());
         font.draw(batch, drawnString, stringX, stringY);
 
         drawnString = mana + "/" + maxMana;
         stringX = Utils.getPosCenterX(layout.width,
-                barBackground.getWidth(), this.getX() + frameBorder.getWidth());
-        stringY = Utils.getPosCenterY(layout.height, barBackground.getHeight(),
-                this.getY() + frameBorder.getHeight() - (13 + 2 * manaBar.getHeight())
+                barBackground.getRegionWidth(), this.getX() + frameBorder.getRegionWidth());
+        stringY = Utils.getPosCenterY(layout.height, barBackground.getRegionHeight(),
+                this.getY() + frameBorder.getRegionHeight() - (13 + 2 * manaBar.getRegionHeight())
                         + font.getCapHeight());
         layout.setText(font, drawnString);
         font.draw(batch, drawnString, stringX, stringY);
@@ -125,7 +125,7 @@ public class PlayerInfoDisplay extends Actor implements IMessageReceiver, IMessa
 
     @Override
     public Actor hit(float x, float y, boolean touchable) {
-        if (x >= 0 && x <= frameBorder.getWidth() && y >= 0 && y <= frameBorder.getHeight()) {
+        if (x >= 0 && x <= frameBorder.getRegionWidth() && y >= 0 && y <= frameBorder.getRegionHeight()) {
             return this;
         }
         return null;
@@ -2,15 +2,13 @@ package xyz.vec3d.game.model.combat;
 
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.gdx.math.Vector2;
-
-import java.util.ArrayList;
+import com.badlogic.gdx.utils.Array;
 
 import xyz.vec3d.game.entities.Player;
 import xyz.vec3d.game.entities.PocketRogueEntity;
 import xyz.vec3d.game.messages.IMessageReceiver;
 import xyz.vec3d.game.messages.Message;
-import xyz.vec3d.game.utils.Logger;
-import xyz.vec3d.game.utils.Utils;
+import xyz.vec3d.game.systems.SpatialIndexSystem;
 
 /**
  * Created by Daron on 3/17/2017.
@@ -24,6 +22,16 @@ public class CombatSystem implements IMessageReceiver {
 
     private Engine engine;
 
+    /**
+     * Shared spatial index used to find the entities caught in a sweep.
+     */
+    private SpatialIndexSystem spatialIndex;
+
+    /**
+     * Reused between attacks to hold the entities caught in the sweep.
+     */
+    private Array<PocketRogueEntity> entitiesHit = new Array<>();
+
     /**
      * The Player object.
      */
@@ -42,6 +50,7 @@ public class CombatSystem implements IMessageReceiver {
     public CombatSystem(Engine engine, Player player) {
         this.player = player;
         this.engine = engine;
+        this.spatialIndex = engine.getSystem(SpatialIndexSystem.class);
         this.timeSinceLastAttack = this.timeTillNextAttack = 2f;
     }
 
@@ -57,24 +66,17 @@ public class CombatSystem implements IMessageReceiver {
         if (timeSinceLastAttack < timeTillNextAttack) {
             return;
         }
-        //First, get all entities in a 2 tile radius.
-        ArrayList<PocketRogueEntity> entitiesInRange = Utils.getEntitiesWithinRange(
-                engine.getEntities(), player, 2f);
-        //Next, check each entity and see if they meet the criteria for being hit.
         Vector2 playerDirection = player.getDirection();
         //Do some maths to get the corner being used for sweep.
-        Vector2 attackSweepPosition = player.getPosition().cpy().add(0.5f, 0.5f);
-        attackSweepPosition.add(playerDirection.cpy().scl(0.5f));
-        for (PocketRogueEntity otherEntity : entitiesInRange) {
-            Vector2 enemyPos = otherEntity.getPosition().cpy().add(0.5f, 0.5f);
-            //Computer distance between sweep position and enemy
-            float distance = attackSweepPosition.dst(enemyPos);
-            float angle = enemyPos.cpy().sub(attackSweepPosition).angle();
-            if (distance <= 1) {
-                Logger.log("Sweep pos: " + attackSweepPosition + ", Enemy pos: " + enemyPos);
-                Logger.log("Hit entity from distance: " + distance + " at angle: " + angle);
-                otherEntity.doHit(player, calculatePlayerDamage(otherEntity));
+        float sweepX = player.getPosition().x + 0.5f + playerDirection.x * 0.5f;
+        float sweepY = player.getPosition().y + 0.5f + playerDirection.y * 0.5f;
+        //Get every entity within a tile of the sweep position.
+        spatialIndex.queryRadius(sweepX, sweepY, 1, entitiesHit);
+        for (PocketRogueEntity otherEntity : entitiesHit) {
+            if (otherEntity == player) {
+                continue;
             }
+            otherEntity.doHit(player, calculatePlayerDamage(otherEntity));
         }
         //Reset attack timer.
         timeSinceLastAttack = 0;
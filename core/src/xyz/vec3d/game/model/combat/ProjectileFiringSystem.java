@@ -3,6 +3,7 @@ package xyz.vec3d.game.model.combat;
 import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.gdx.math.Vector2;
 
+import xyz.vec3d.game.entities.EntityPools;
 import xyz.vec3d.game.entities.PocketRogueEntity;
 import xyz.vec3d.game.entities.Projectile;
 
@@ -21,6 +22,16 @@ public class ProjectileFiringSystem extends EntitySystem {
 
     private float timeSinceLastShot = 0f;
 
+    /**
+     * Damage done by each bolt.
+     */
+    private static final float BOLT_DAMAGE = 10.0f;
+
+    /**
+     * Reused to work out each shot's velocity.
+     */
+    private final Vector2 velocity = new Vector2();
+
     /**
      * Time in seconds before another projectile can be fired.
      */
@@ -43,21 +54,22 @@ public class ProjectileFiringSystem extends EntitySystem {
         if (timeSinceLastShot >= delayBetweenShots) {
             timeSinceLastShot = 0;
             //Get player's direction to use as base velocity.
-            Vector2 velocity = owner.getDirection().cpy();
+            velocity.set(owner.getDirection());
             //Scale to desired speed
             velocity.scl(0.4f);
             //Get player's position to use as base position.
-            Vector2 position = owner.getPosition().cpy();
+            Vector2 position = owner.getPosition();
             //Get angle of range -180<=theta<=180
             float angle = velocity.angle();
             float xMod = (angle == 270 || angle == 90) ? 0 :
                     (angle == 135 || angle == 225 || angle == 180) ? -1 : 1;
             float yMod = (angle == 180 || angle == 0) ? 0 :
                     (angle == 225 || angle == 315 || angle == 270) ? -1 : 1;
-            position.add(1.1f * xMod, 1.1f * yMod);
             //Spawn projectile.
-            Projectile projectile = new Projectile(owner, position, velocity, "Bolt");
-            projectile.putProperty("dmg", 10.0f);
+            Projectile projectile = EntityPools.obtainProjectile(owner,
+                    position.x + 1.1f * xMod, position.y + 1.1f * yMod,
+                    velocity.x, velocity.y, "Bolt");
+            projectile.setDamage(BOLT_DAMAGE);
             return projectile;
         }
         return null;
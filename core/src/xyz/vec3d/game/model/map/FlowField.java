@@ -0,0 +1,312 @@
+package xyz.vec3d.game.model.map;
+
+import java.util.Arrays;
+
+/**
+ * Created by Daron on 6/8/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Flow field over the tiles of a {@link TileCollisionMap} pointing every
+ * reachable tile towards a single target tile. The field is built with one
+ * Dijkstra search outwards from the target, after which finding the way
+ * towards the target from anywhere on the map is a single array lookup. This
+ * lets any number of entities share one search instead of each running its own.
+ *
+ * A field can also cover only part of the map, in which case paths are kept
+ * inside that region.
+ *
+ * Movement is allowed in 8 directions. Diagonal steps are only allowed when
+ * both tiles beside the step are open so entities never try to cut the corner
+ * of a wall.
+ */
+public class FlowField {
+
+    /**
+     * Direction stored for tiles that have no way to the target, as well as
+     * the target itself.
+     */
+    public static final byte NONE = -1;
+
+    /**
+     * Tile offsets for each direction, starting right and going counter
+     * clockwise.
+     */
+    private static final int[] OFFSET_X = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] OFFSET_Y = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /**
+     * Unit vectors for each direction.
+     */
+    private static final float[] DIRECTION_X = new float[8];
+    private static final float[] DIRECTION_Y = new float[8];
+
+    /**
+     * Cost of a step in each direction. Diagonals cost 14 against 10 for a
+     * straight step, which keeps everything in integers.
+     */
+    private static final int[] STEP_COST = {10, 14, 10, 14, 10, 14, 10, 14};
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            float length = (float) Math.sqrt(OFFSET_X[i] * OFFSET_X[i] + OFFSET_Y[i] * OFFSET_Y[i]);
+            DIRECTION_X[i] = OFFSET_X[i] / length;
+            DIRECTION_Y[i] = OFFSET_Y[i] / length;
+        }
+    }
+
+    private final TileCollisionMap collisionMap;
+
+    /**
+     * The region of the map covered by the field, in tiles.
+     */
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+
+    /**
+     * Cost of the cheapest path from each tile to the target.
+     */
+    private final int[] costs;
+
+    /**
+     * Direction to step in from each tile to follow the cheapest path.
+     */
+    private final byte[] directions;
+
+    /**
+     * Binary heap of tile indices and the cost they were pushed with, used by
+     * the search. Tiles can be in the heap more than once; stale entries are
+     * skipped when popped.
+     */
+    private int[] heap;
+    private int[] heapCosts;
+    private int heapSize;
+
+    private int targetX = -1;
+    private int targetY = -1;
+
+    /**
+     * Creates an empty flow field for a map. Nothing can reach the target
+     * until {@link #compute(int, int)} is called.
+     *
+     * @param collisionMap The solid tiles of the map.
+     */
+    public FlowField(TileCollisionMap collisionMap) {
+        this(collisionMap, 0, 0, collisionMap.getWidth(), collisionMap.getHeight());
+    }
+
+    /**
+     * Creates an empty flow field covering part of a map.
+     *
+     * @param collisionMap The solid tiles of the map.
+     * @param originX Tile x coordinate of the region's bottom left corner.
+     * @param originY Tile y coordinate of the region's bottom left corner.
+     * @param width Width of the region in tiles.
+     * @param height Height of the region in tiles.
+     */
+    public FlowField(TileCollisionMap collisionMap, int originX, int originY, int width,
+                     int height) {
+        this.collisionMap = collisionMap;
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.costs = new int[width * height];
+        this.directions = new byte[width * height];
+        this.heap = new int[width * height];
+        this.heapCosts = new int[width * height];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        Arrays.fill(directions, NONE);
+    }
+
+    /**
+     * Rebuilds the field to lead to a new target tile. Does nothing if the
+     * target hasn't changed.
+     *
+     * @param x Tile x coordinate of the target.
+     * @param y Tile y coordinate of the target.
+     *
+     * @return True if the field was rebuilt.
+     */
+    public boolean compute(int x, int y) {
+        x = Math.max(originX, Math.min(originX + width - 1, x));
+        y = Math.max(originY, Math.min(originY + height - 1, y));
+        if (x == targetX && y == targetY) {
+            return false;
+        }
+        targetX = x;
+        targetY = y;
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        Arrays.fill(directions, NONE);
+        heapSize = 0;
+        int target = (y - originY) * width + (x - originX);
+        costs[target] = 0;
+        push(target, 0);
+        while (heapSize > 0) {
+            int cost = heapCosts[0];
+            int tile = pop();
+            if (cost > costs[tile]) {
+                continue;
+            }
+            int tileX = originX + tile % width;
+            int tileY = originY + tile / width;
+            for (int direction = 0; direction < 8; direction++) {
+                int neighbourX = tileX + OFFSET_X[direction];
+                int neighbourY = tileY + OFFSET_Y[direction];
+                if (!canStep(neighbourX, neighbourY, tileX, tileY)) {
+                    continue;
+                }
+                int neighbour = (neighbourY - originY) * width + (neighbourX - originX);
+                int neighbourCost = cost + STEP_COST[direction];
+                if (neighbourCost < costs[neighbour]) {
+                    costs[neighbour] = neighbourCost;
+                    //The neighbour is reached by stepping back the way we came.
+                    directions[neighbour] = (byte) ((direction + 4) & 7);
+                    push(neighbour, neighbourCost);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if an entity can step from one tile to a neighbouring one.
+     */
+    private boolean canStep(int fromX, int fromY, int toX, int toY) {
+        if (!contains(fromX, fromY)
+                || collisionMap.isSolid(fromX, fromY) || collisionMap.isSolid(toX, toY)) {
+            return false;
+        }
+        //Diagonal steps need both tiles beside them to be open.
+        if (fromX != toX && fromY != toY) {
+            return !collisionMap.isSolid(fromX, toY) && !collisionMap.isSolid(toX, fromY);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the direction to step in from a tile to reach the target.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return The direction index or {@link #NONE} if the tile is the target,
+     * can't reach the target or is outside the map.
+     */
+    public byte getDirection(int x, int y) {
+        if (!contains(x, y)) {
+            return NONE;
+        }
+        return directions[(y - originY) * width + (x - originX)];
+    }
+
+    /**
+     * Returns the cost of the cheapest path from a tile to the target. A
+     * straight step costs 10 and a diagonal step 14.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return The cost or {@link Integer#MAX_VALUE} if the target can't be
+     * reached.
+     */
+    public int getCost(int x, int y) {
+        if (!contains(x, y)) {
+            return Integer.MAX_VALUE;
+        }
+        return costs[(y - originY) * width + (x - originX)];
+    }
+
+    /**
+     * Determines if a tile lies within the region covered by the field.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return True if the tile is inside the field.
+     */
+    public boolean contains(int x, int y) {
+        return x >= originX && y >= originY && x < originX + width && y < originY + height;
+    }
+
+    /**
+     * Returns the x component of the unit vector for a direction.
+     *
+     * @param direction A direction returned by {@link #getDirection(int, int)}.
+     *
+     * @return The x component or 0 for {@link #NONE}.
+     */
+    public static float getDirectionX(byte direction) {
+        return direction == NONE ? 0 : DIRECTION_X[direction];
+    }
+
+    public static float getDirectionY(byte direction) {
+        return direction == NONE ? 0 : DIRECTION_Y[direction];
+    }
+
+    /**
+     * Determines if the target can be reached from a tile.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return True if there is a path to the target.
+     */
+    public boolean isReachable(int x, int y) {
+        return getCost(x, y) != Integer.MAX_VALUE;
+    }
+
+    public int getTargetX() {
+        return targetX;
+    }
+
+    public int getTargetY() {
+        return targetY;
+    }
+
+    private void push(int tile, int cost) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            heapCosts = Arrays.copyOf(heapCosts, heapCosts.length * 2);
+        }
+        int index = heapSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapCosts[parent] <= cost) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapCosts[index] = heapCosts[parent];
+            index = parent;
+        }
+        heap[index] = tile;
+        heapCosts[index] = cost;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int lastCost = heapCosts[heapSize];
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                child++;
+            }
+            if (heapCosts[child] >= lastCost) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapCosts[index] = heapCosts[child];
+            index = child;
+        }
+        heap[index] = last;
+        heapCosts[index] = lastCost;
+        return top;
+    }
+}
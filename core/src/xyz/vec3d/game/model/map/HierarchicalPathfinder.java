@@ -0,0 +1,673 @@
+package xyz.vec3d.game.model.map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by Daron on 6/9/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Hierarchical pathfinder for entities that need to walk to places other than
+ * the player. The map is cut into square clusters. Wherever two neighbouring
+ * clusters have open tiles along their shared edge an entrance is made, and
+ * the cost of walking between every pair of entrances in a cluster is worked
+ * out once when the map is loaded. Long paths are then found with A* over the
+ * small graph of entrances rather than over every tile on the map.
+ *
+ * Every entrance keeps a {@link FlowField} over its own cluster, so an entity
+ * following a path only ever needs a lookup to know which way to step towards
+ * the next entrance.
+ *
+ * Searches are queued with {@link #request(PathRequest, int, int, int, int)}
+ * and worked on in {@link #update(int)} with a limit on how much work may be
+ * done each call, so many requests in one tick are spread over several ticks.
+ * Found paths are cached by the clusters they start and end in and are reused
+ * for later requests between the same clusters when possible. The field
+ * leading to each goal tile is cached too, so entities sent to the same place
+ * share one.
+ */
+public class HierarchicalPathfinder {
+
+    /**
+     * Width and height of a cluster in tiles.
+     */
+    public static final int CLUSTER_SIZE = 10;
+
+    /**
+     * Runs of open tiles along a cluster edge longer than this get an entrance
+     * at each end instead of a single one in the middle.
+     */
+    private static final int MAX_SINGLE_ENTRANCE_LENGTH = 5;
+
+    /**
+     * Number of abstract paths kept in the cache.
+     */
+    private static final int CACHE_SIZE = 64;
+
+    /**
+     * Number of goal fields kept in the cache.
+     */
+    private static final int GOAL_FIELD_CACHE_SIZE = 32;
+
+    /**
+     * Budget charged for starting a request, on top of the cost of building
+     * its goal field if that isn't cached.
+     */
+    private static final int START_COST = 1;
+
+    /**
+     * Budget charged for building a goal field, one for every tile of a
+     * cluster it may visit.
+     */
+    private static final int GOAL_FIELD_COST = CLUSTER_SIZE * CLUSTER_SIZE;
+
+    /**
+     * Cost of stepping across a cluster edge, the same as a straight step in a
+     * {@link FlowField}.
+     */
+    private static final int STEP_COST = 10;
+
+    /**
+     * Path for requests whose goal can be walked to without any entrances.
+     */
+    private static final int[] NO_NODES = new int[0];
+
+    private final TileCollisionMap collisionMap;
+    private final int clustersX;
+    private final int clustersY;
+
+    /**
+     * Abstract graph. Node ids index into these arrays.
+     */
+    private final IntArray nodeX = new IntArray();
+    private final IntArray nodeY = new IntArray();
+    private final IntArray nodeCluster = new IntArray();
+    private final Array<FlowField> nodeFields = new Array<FlowField>();
+
+    /**
+     * Outgoing edges of every node stored as pairs of target node and cost.
+     */
+    private final Array<IntArray> nodeEdges = new Array<IntArray>();
+
+    /**
+     * Nodes in each cluster.
+     */
+    private final IntArray[] clusterNodes;
+
+    /**
+     * Node id for tiles that are entrances.
+     */
+    private final IntIntMap tileNodes = new IntIntMap();
+
+    /**
+     * Abstract paths keyed by start and goal cluster, least recently used
+     * first.
+     */
+    private final LinkedHashMap<Long, int[]> pathCache =
+            new LinkedHashMap<Long, int[]>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Fields leading to a goal tile from anywhere in its cluster, keyed by the
+     * goal tile, least recently used first.
+     */
+    private final LinkedHashMap<Integer, FlowField> goalFieldCache =
+            new LinkedHashMap<Integer, FlowField>(GOAL_FIELD_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, FlowField> eldest) {
+                    return size() > GOAL_FIELD_CACHE_SIZE;
+                }
+            };
+
+    private final Array<PathRequest> requests = new Array<PathRequest>();
+
+    /**
+     * State of the search for the request at the head of the queue. The goal
+     * is treated as one extra node with the id {@link #goalNode}.
+     */
+    private PathRequest searching;
+    private int goalNode;
+    private int[] costs;
+    private int[] parents;
+    private int[] visited;
+    private int searchId;
+    private int[] heap = new int[64];
+    private int[] heapCosts = new int[64];
+    private int heapSize;
+
+    private int cacheHits;
+    private int cacheMisses;
+
+    /**
+     * Builds the abstract graph for a map.
+     *
+     * @param collisionMap The solid tiles of the map.
+     */
+    public HierarchicalPathfinder(TileCollisionMap collisionMap) {
+        this.collisionMap = collisionMap;
+        this.clustersX = (collisionMap.getWidth() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clustersY = (collisionMap.getHeight() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clusterNodes = new IntArray[clustersX * clustersY];
+        for (int i = 0; i < clusterNodes.length; i++) {
+            clusterNodes[i] = new IntArray();
+        }
+        buildEntrances();
+        buildIntraClusterEdges();
+        goalNode = nodeX.size;
+        costs = new int[goalNode + 1];
+        parents = new int[goalNode + 1];
+        visited = new int[goalNode + 1];
+    }
+
+    /**
+     * Creates entrances along every edge shared by two clusters.
+     */
+    private void buildEntrances() {
+        int width = collisionMap.getWidth();
+        int height = collisionMap.getHeight();
+        //Edges between a cluster and the one to its right.
+        for (int x = CLUSTER_SIZE - 1; x + 1 < width; x += CLUSTER_SIZE) {
+            for (int clusterY = 0; clusterY < clustersY; clusterY++) {
+                int start = clusterY * CLUSTER_SIZE;
+                int end = Math.min(height, start + CLUSTER_SIZE);
+                int run = -1;
+                for (int y = start; y <= end; y++) {
+                    boolean open = y < end && !collisionMap.isSolid(x, y)
+                            && !collisionMap.isSolid(x + 1, y);
+                    if (open && run == -1) {
+                        run = y;
+                    } else if (!open && run != -1) {
+                        for (int entrance : entrancesForRun(run, y - 1)) {
+                            connect(x, entrance, x + 1, entrance);
+                        }
+                        run = -1;
+                    }
+                }
+            }
+        }
+        //Edges between a cluster and the one above it.
+        for (int y = CLUSTER_SIZE - 1; y + 1 < height; y += CLUSTER_SIZE) {
+            for (int clusterX = 0; clusterX < clustersX; clusterX++) {
+                int start = clusterX * CLUSTER_SIZE;
+                int end = Math.min(width, start + CLUSTER_SIZE);
+                int run = -1;
+                for (int x = start; x <= end; x++) {
+                    boolean open = x < end && !collisionMap.isSolid(x, y)
+                            && !collisionMap.isSolid(x, y + 1);
+                    if (open && run == -1) {
+                        run = x;
+                    } else if (!open && run != -1) {
+                        for (int entrance : entrancesForRun(run, x - 1)) {
+                            connect(entrance, y, entrance, y + 1);
+                        }
+                        run = -1;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] entrancesForRun(int first, int last) {
+        if (last - first + 1 > MAX_SINGLE_ENTRANCE_LENGTH) {
+            return new int[] {first, last};
+        }
+        return new int[] {(first + last) / 2};
+    }
+
+    /**
+     * Links two tiles on either side of a cluster edge.
+     */
+    private void connect(int x, int y, int otherX, int otherY) {
+        int node = addNode(x, y);
+        int otherNode = addNode(otherX, otherY);
+        nodeEdges.get(node).add(otherNode);
+        nodeEdges.get(node).add(STEP_COST);
+        nodeEdges.get(otherNode).add(node);
+        nodeEdges.get(otherNode).add(STEP_COST);
+    }
+
+    private int addNode(int x, int y) {
+        int tile = y * collisionMap.getWidth() + x;
+        int node = tileNodes.get(tile, -1);
+        if (node != -1) {
+            return node;
+        }
+        node = nodeX.size;
+        int cluster = clusterOf(x, y);
+        nodeX.add(x);
+        nodeY.add(y);
+        nodeCluster.add(cluster);
+        nodeEdges.add(new IntArray());
+        nodeFields.add(null);
+        clusterNodes[cluster].add(node);
+        tileNodes.put(tile, node);
+        return node;
+    }
+
+    /**
+     * Works out the field and walking costs inside the cluster of every node.
+     */
+    private void buildIntraClusterEdges() {
+        for (int node = 0; node < nodeX.size; node++) {
+            FlowField field = createClusterField(nodeCluster.get(node));
+            field.compute(nodeX.get(node), nodeY.get(node));
+            nodeFields.set(node, field);
+        }
+        for (int node = 0; node < nodeX.size; node++) {
+            IntArray others = clusterNodes[nodeCluster.get(node)];
+            for (int i = 0; i < others.size; i++) {
+                int other = others.get(i);
+                if (other == node) {
+                    continue;
+                }
+                //Cost from this node to the other, read from the other's field.
+                int cost = nodeFields.get(other).getCost(nodeX.get(node), nodeY.get(node));
+                if (cost != Integer.MAX_VALUE) {
+                    nodeEdges.get(node).add(other);
+                    nodeEdges.get(node).add(cost);
+                }
+            }
+        }
+    }
+
+    private FlowField createClusterField(int cluster) {
+        int originX = (cluster % clustersX) * CLUSTER_SIZE;
+        int originY = (cluster / clustersX) * CLUSTER_SIZE;
+        return new FlowField(collisionMap, originX, originY,
+                Math.min(CLUSTER_SIZE, collisionMap.getWidth() - originX),
+                Math.min(CLUSTER_SIZE, collisionMap.getHeight() - originY));
+    }
+
+    /**
+     * Queues a search for a path between two tiles. A request that is already
+     * queued or being worked on is started over with the new tiles, so an
+     * entity can keep reusing one request for every path it needs.
+     *
+     * @param request The request to fill in, which holds the path once it is
+     *                done.
+     * @param startX Tile x coordinate to start from.
+     * @param startY Tile y coordinate to start from.
+     * @param goalX Tile x coordinate to reach.
+     * @param goalY Tile y coordinate to reach.
+     */
+    public void request(PathRequest request, int startX, int startY, int goalX, int goalY) {
+        if (request.queued) {
+            requests.removeValue(request, true);
+        }
+        if (searching == request) {
+            searching = null;
+        }
+        request.reset(startX, startY, goalX, goalY);
+        request.queued = true;
+        requests.add(request);
+    }
+
+    /**
+     * Works through queued requests in the order they were made. Starting a
+     * request, building its goal field and expanding graph nodes are all
+     * charged against the budget.
+     *
+     * @param budget Max amount of work to do during this call, roughly the
+     *               number of nodes or tiles visited.
+     */
+    public void update(int budget) {
+        while (budget > 0) {
+            if (searching == null) {
+                if (requests.size == 0) {
+                    return;
+                }
+                PathRequest request = requests.removeIndex(0);
+                request.queued = false;
+                budget -= START_COST;
+                if (!request.cancelled) {
+                    budget -= begin(request);
+                }
+                continue;
+            }
+            budget -= step(budget);
+            if (searching.isDone() || searching.cancelled) {
+                searching = null;
+            }
+        }
+    }
+
+    /**
+     * Starts working on a request, finishing it straight away if the path is
+     * trivial or cached, or failing it if the goal is off the map. Otherwise
+     * the request becomes the one being searched for.
+     *
+     * @return Budget used building the request's goal field.
+     */
+    private int begin(PathRequest request) {
+        //Goals off the map would alias other tiles in the goal field cache.
+        if (!collisionMap.contains(request.goalX, request.goalY)) {
+            request.fail();
+            return 0;
+        }
+        int startCluster = clusterOf(request.startX, request.startY);
+        int goalCluster = clusterOf(request.goalX, request.goalY);
+        int goalTile = request.goalY * collisionMap.getWidth() + request.goalX;
+        int used = 0;
+        FlowField goalField = goalFieldCache.get(goalTile);
+        if (goalField == null) {
+            goalField = createClusterField(goalCluster);
+            goalField.compute(request.goalX, request.goalY);
+            goalFieldCache.put(goalTile, goalField);
+            used = GOAL_FIELD_COST;
+        }
+        request.goalField = goalField;
+        //Start and goal share a cluster and can see each other inside it.
+        if (startCluster == goalCluster && goalField.isReachable(request.startX, request.startY)) {
+            request.finish(NO_NODES);
+            return used;
+        }
+        long key = cacheKey(startCluster, goalCluster);
+        int[] cached = pathCache.get(key);
+        if (cached != null && cached.length > 0) {
+            int first = cached[0];
+            int last = cached[cached.length - 1];
+            if (nodeFields.get(first).isReachable(request.startX, request.startY)
+                    && goalField.isReachable(nodeX.get(last), nodeY.get(last))) {
+                cacheHits++;
+                request.finish(cached);
+                return used;
+            }
+        }
+        cacheMisses++;
+        //Seed the search with every node the start can walk to in its cluster.
+        searchId++;
+        heapSize = 0;
+        IntArray startNodes = clusterNodes[startCluster];
+        for (int i = 0; i < startNodes.size; i++) {
+            int node = startNodes.get(i);
+            int cost = nodeFields.get(node).getCost(request.startX, request.startY);
+            if (cost != Integer.MAX_VALUE) {
+                visit(node, cost, -1, request);
+            }
+        }
+        if (heapSize == 0) {
+            request.fail();
+            return used;
+        }
+        searching = request;
+        return used;
+    }
+
+    /**
+     * Expands nodes of the current search.
+     *
+     * @param budget Max number of nodes to expand.
+     *
+     * @return Number of nodes expanded.
+     */
+    private int step(int budget) {
+        PathRequest request = searching;
+        int goalCluster = clusterOf(request.goalX, request.goalY);
+        int expanded = 0;
+        while (expanded < budget) {
+            if (request.cancelled) {
+                return expanded;
+            }
+            if (heapSize == 0) {
+                request.fail();
+                return Math.max(1, expanded);
+            }
+            int cost = heapCosts[0];
+            int node = pop();
+            if (node == goalNode) {
+                finish(request);
+                return Math.max(1, expanded);
+            }
+            if (cost > costs[node] + heuristic(node, request)) {
+                continue;
+            }
+            expanded++;
+            if (nodeCluster.get(node) == goalCluster) {
+                int goalCost = request.goalField.getCost(nodeX.get(node), nodeY.get(node));
+                if (goalCost != Integer.MAX_VALUE) {
+                    visit(goalNode, costs[node] + goalCost, node, request);
+                }
+            }
+            IntArray edges = nodeEdges.get(node);
+            for (int i = 0; i < edges.size; i += 2) {
+                visit(edges.get(i), costs[node] + edges.get(i + 1), node, request);
+            }
+        }
+        return expanded;
+    }
+
+    private void visit(int node, int cost, int parent, PathRequest request) {
+        if (visited[node] == searchId && costs[node] <= cost) {
+            return;
+        }
+        visited[node] = searchId;
+        costs[node] = cost;
+        parents[node] = parent;
+        push(node, cost + heuristic(node, request));
+    }
+
+    /**
+     * Octile distance to the goal, scaled to match the step costs.
+     */
+    private int heuristic(int node, PathRequest request) {
+        if (node == goalNode) {
+            return 0;
+        }
+        int deltaX = Math.abs(nodeX.get(node) - request.goalX);
+        int deltaY = Math.abs(nodeY.get(node) - request.goalY);
+        return 10 * Math.max(deltaX, deltaY) + 4 * Math.min(deltaX, deltaY);
+    }
+
+    private void finish(PathRequest request) {
+        int length = 0;
+        for (int node = parents[goalNode]; node != -1; node = parents[node]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int node = parents[goalNode]; node != -1; node = parents[node]) {
+            nodes[--length] = node;
+        }
+        pathCache.put(cacheKey(clusterOf(request.startX, request.startY),
+                clusterOf(request.goalX, request.goalY)), nodes);
+        request.finish(nodes);
+    }
+
+    private static long cacheKey(int startCluster, int goalCluster) {
+        return ((long) startCluster << 32) | (goalCluster & 0xffffffffL);
+    }
+
+    /**
+     * Returns the cluster a tile belongs to.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return The cluster's index.
+     */
+    public int clusterOf(int x, int y) {
+        x = Math.max(0, Math.min(collisionMap.getWidth() - 1, x));
+        y = Math.max(0, Math.min(collisionMap.getHeight() - 1, y));
+        return (y / CLUSTER_SIZE) * clustersX + x / CLUSTER_SIZE;
+    }
+
+    public int getNodeX(int node) {
+        return nodeX.get(node);
+    }
+
+    public int getNodeY(int node) {
+        return nodeY.get(node);
+    }
+
+    public int getNodeCluster(int node) {
+        return nodeCluster.get(node);
+    }
+
+    /**
+     * Returns the field leading to a node from anywhere in the node's cluster.
+     *
+     * @param node The node's id.
+     *
+     * @return The node's field.
+     */
+    public FlowField getNodeField(int node) {
+        return nodeFields.get(node);
+    }
+
+    public int getNodeCount() {
+        return nodeX.size;
+    }
+
+    public int getPendingRequests() {
+        return requests.size + (searching != null ? 1 : 0);
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    private void push(int node, int cost) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            heapCosts = Arrays.copyOf(heapCosts, heapCosts.length * 2);
+        }
+        int index = heapSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapCosts[parent] <= cost) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heapCosts[index] = heapCosts[parent];
+            index = parent;
+        }
+        heap[index] = node;
+        heapCosts[index] = cost;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int lastCost = heapCosts[heapSize];
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                child++;
+            }
+            if (heapCosts[child] >= lastCost) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapCosts[index] = heapCosts[child];
+            index = child;
+        }
+        heap[index] = last;
+        heapCosts[index] = lastCost;
+        return top;
+    }
+
+    /**
+     * A queued search for a path. Once done the path is a list of entrance
+     * nodes to walk through in order followed by the goal tile itself.
+     */
+    public static class PathRequest {
+
+        private int startX;
+        private int startY;
+        private int goalX;
+        private int goalY;
+
+        private int[] nodes;
+        private FlowField goalField;
+        private boolean done;
+        private boolean failed;
+        private boolean cancelled;
+
+        /**
+         * True while the request is waiting in the queue.
+         */
+        private boolean queued;
+
+        private void reset(int startX, int startY, int goalX, int goalY) {
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.nodes = null;
+            this.goalField = null;
+            this.done = false;
+            this.failed = false;
+            this.cancelled = false;
+        }
+
+        private void finish(int[] nodes) {
+            this.nodes = nodes;
+            this.done = true;
+        }
+
+        private void fail() {
+            this.failed = true;
+            this.done = true;
+        }
+
+        /**
+         * Stops the request from being worked on any further.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns the entrance nodes on the path. Shared with the cache, so
+         * must not be modified.
+         *
+         * @return The node ids in walking order.
+         */
+        public int[] getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Returns the field leading to the goal from anywhere in the goal's
+         * cluster.
+         *
+         * @return The goal's field.
+         */
+        public FlowField getGoalField() {
+            return goalField;
+        }
+
+        public int getGoalX() {
+            return goalX;
+        }
+
+        public int getGoalY() {
+            return goalY;
+        }
+    }
+}
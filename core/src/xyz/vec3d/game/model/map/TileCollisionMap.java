@@ -0,0 +1,281 @@
+package xyz.vec3d.game.model.map;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.Vector2;
+
+import xyz.vec3d.game.utils.Logger;
+
+/**
+ * Created by Daron on 6/6/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Packed bitset of which tiles in the world block movement. The bitset is
+ * compiled once from the {@link TiledMap} when the map is loaded. A tile is
+ * solid if it has a tile on the layer named {@link #COLLISION_LAYER_NAME} or if
+ * the tile placed on it in any layer has a "solid" property set to true.
+ *
+ * Looking up a tile is a single array read and bit test, so the resolver used
+ * by the {@link xyz.vec3d.game.systems.MovementSystem} only costs a few lookups
+ * per entity and never allocates.
+ */
+public class TileCollisionMap {
+
+    /**
+     * Name of the optional map layer whose tiles are all solid. The layer can
+     * be hidden in Tiled, it is only read for collision.
+     */
+    public static final String COLLISION_LAYER_NAME = "collision";
+
+    /**
+     * Name of the tile property that marks a tile as solid.
+     */
+    public static final String SOLID_PROPERTY = "solid";
+
+    /**
+     * Flag returned by {@link #move(Vector2, float, float, float, float)} when
+     * the x movement was stopped by a wall.
+     */
+    public static final int BLOCKED_X = 1;
+
+    /**
+     * Flag returned by {@link #move(Vector2, float, float, float, float)} when
+     * the y movement was stopped by a wall.
+     */
+    public static final int BLOCKED_Y = 2;
+
+    /**
+     * Small offset used so that an edge lying exactly on a tile boundary isn't
+     * treated as being inside the next tile.
+     */
+    private static final float EPSILON = 0.0001f;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * One bit per tile, row by row starting from the bottom of the map.
+     */
+    private final long[] bits;
+
+    /**
+     * Number of solid tiles, used to skip all tile checks on open maps.
+     */
+    private int solidCount;
+
+    /**
+     * Creates an empty collision map of the given size in tiles.
+     *
+     * @param width Width of the map in tiles.
+     * @param height Height of the map in tiles.
+     */
+    public TileCollisionMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+    }
+
+    /**
+     * Compiles the collision map for a {@link TiledMap}.
+     *
+     * @param map The loaded map.
+     *
+     * @return The compiled collision map.
+     */
+    public static TileCollisionMap compile(TiledMap map) {
+        int width = map.getProperties().get("width", Integer.class);
+        int height = map.getProperties().get("height", Integer.class);
+        TileCollisionMap collisionMap = new TileCollisionMap(width, height);
+        for (MapLayer layer : map.getLayers()) {
+            if (!(layer instanceof TiledMapTileLayer)) {
+                continue;
+            }
+            TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+            boolean collisionLayer = COLLISION_LAYER_NAME.equalsIgnoreCase(layer.getName());
+            for (int y = 0; y < Math.min(height, tileLayer.getHeight()); y++) {
+                for (int x = 0; x < Math.min(width, tileLayer.getWidth()); x++) {
+                    TiledMapTileLayer.Cell cell = tileLayer.getCell(x, y);
+                    if (cell == null || cell.getTile() == null) {
+                        continue;
+                    }
+                    if (collisionLayer || isSolidTile(cell.getTile())) {
+                        collisionMap.setSolid(x, y, true);
+                    }
+                }
+            }
+        }
+        Logger.log("Compiled collision map with " + collisionMap.solidCount
+                + " solid tiles.", TileCollisionMap.class);
+        return collisionMap;
+    }
+
+    private static boolean isSolidTile(TiledMapTile tile) {
+        Object solid = tile.getProperties().get(SOLID_PROPERTY);
+        return solid != null && Boolean.parseBoolean(solid.toString());
+    }
+
+    /**
+     * Determines if a tile blocks movement. Tiles outside of the map are never
+     * solid; the world bounds are handled separately.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return True if the tile is solid.
+     */
+    public boolean isSolid(int x, int y) {
+        if (!contains(x, y)) {
+            return false;
+        }
+        int index = y * width + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Determines if a tile lies within the map.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     *
+     * @return True if the tile is inside the map.
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Marks a tile as solid or passable.
+     *
+     * @param x Tile x coordinate.
+     * @param y Tile y coordinate.
+     * @param solid True if the tile should block movement.
+     */
+    public void setSolid(int x, int y, boolean solid) {
+        if (x < 0 || y < 0 || x >= width || y >= height || isSolid(x, y) == solid) {
+            return;
+        }
+        int index = y * width + x;
+        if (solid) {
+            bits[index >>> 6] |= 1L << index;
+            solidCount++;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+            solidCount--;
+        }
+    }
+
+    /**
+     * Moves a box through the map, one axis at a time, stopping it flush
+     * against the first solid tile it would run into on each axis. Every tile
+     * column or row crossed is checked so fast moving boxes can't skip over a
+     * wall.
+     *
+     * @param position Bottom left corner of the box. Updated in place.
+     * @param deltaX Distance to move along the x axis.
+     * @param deltaY Distance to move along the y axis.
+     * @param boxWidth Width of the box.
+     * @param boxHeight Height of the box.
+     *
+     * @return A combination of {@link #BLOCKED_X} and {@link #BLOCKED_Y} for
+     * the axes that were stopped, or 0 if the box moved freely.
+     */
+    public int move(Vector2 position, float deltaX, float deltaY, float boxWidth,
+                    float boxHeight) {
+        if (solidCount == 0) {
+            position.add(deltaX, deltaY);
+            return 0;
+        }
+        int blocked = 0;
+        float x = position.x;
+        float y = position.y;
+        if (deltaX != 0) {
+            int bottom = floor(y + EPSILON);
+            int top = floor(y + boxHeight - EPSILON);
+            float targetX = x + deltaX;
+            if (deltaX > 0) {
+                int end = floor(targetX + boxWidth - EPSILON);
+                for (int column = floor(x + boxWidth - EPSILON) + 1; column <= end; column++) {
+                    if (columnBlocked(column, bottom, top)) {
+                        targetX = column - boxWidth;
+                        blocked |= BLOCKED_X;
+                        break;
+                    }
+                }
+            } else {
+                int end = floor(targetX);
+                for (int column = floor(x) - 1; column >= end; column--) {
+                    if (columnBlocked(column, bottom, top)) {
+                        targetX = column + 1;
+                        blocked |= BLOCKED_X;
+                        break;
+                    }
+                }
+            }
+            x = targetX;
+        }
+        if (deltaY != 0) {
+            int left = floor(x + EPSILON);
+            int right = floor(x + boxWidth - EPSILON);
+            float targetY = y + deltaY;
+            if (deltaY > 0) {
+                int end = floor(targetY + boxHeight - EPSILON);
+                for (int row = floor(y + boxHeight - EPSILON) + 1; row <= end; row++) {
+                    if (rowBlocked(row, left, right)) {
+                        targetY = row - boxHeight;
+                        blocked |= BLOCKED_Y;
+                        break;
+                    }
+                }
+            } else {
+                int end = floor(targetY);
+                for (int row = floor(y) - 1; row >= end; row--) {
+                    if (rowBlocked(row, left, right)) {
+                        targetY = row + 1;
+                        blocked |= BLOCKED_Y;
+                        break;
+                    }
+                }
+            }
+            y = targetY;
+        }
+        position.set(x, y);
+        return blocked;
+    }
+
+    private boolean columnBlocked(int column, int bottom, int top) {
+        for (int row = bottom; row <= top; row++) {
+            if (isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean rowBlocked(int row, int left, int right) {
+        for (int column = left; column <= right; column++) {
+            if (isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int floor(float value) {
+        return (int) Math.floor(value);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getSolidCount() {
+        return solidCount;
+    }
+}
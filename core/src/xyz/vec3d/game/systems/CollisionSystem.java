@@ -1,67 +1,313 @@
 package xyz.vec3d.game.systems;
 
-import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
-import com.badlogic.gdx.math.Rectangle;
-
-import java.util.ArrayList;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.utils.IntArray;
 
+import xyz.vec3d.game.Settings;
 import xyz.vec3d.game.entities.PocketRogueEntity;
 import xyz.vec3d.game.entities.components.CollideComponent;
-import xyz.vec3d.game.entities.components.PositionComponent;
-import xyz.vec3d.game.utils.Logger;
-import xyz.vec3d.game.utils.Utils;
+import xyz.vec3d.game.entities.components.CollideComponent.Layer;
+import xyz.vec3d.game.utils.ParallelExecutor;
+import xyz.vec3d.game.utils.Profiler;
 
 /**
  * Created by Daron on 10/5/2016.
  *
- * Collision system that handles entity on entity interaction.
+ * Collision system that handles entity on entity interaction. The broadphase
+ * is provided by the {@link SpatialIndexSystem} which must be added to the
+ * engine before this system.
+ *
+ * Collision runs in two steps. First the colliding pairs are found, which only
+ * reads hit boxes and the spatial index. Then the pairs are dispatched to the
+ * entities' {@link PocketRogueEntity#doCollision(PocketRogueEntity)} methods.
+ * When {@link Settings#PARALLEL_COLLISION} is set the first step is split into
+ * bands of grid rows that are searched on a {@link ParallelExecutor}. The
+ * second step always runs on the calling thread in index order, so both modes
+ * produce the same callbacks in the same order. Without an executor, such as
+ * on Android, the serial mode is always used.
  */
 
-public class CollisionSystem extends IteratingSystem {
+public class CollisionSystem extends EntitySystem {
+
+    /**
+     * Flag stored with a pair when the first entity reacts to the second.
+     */
+    private static final int FIRST_REACTS = 1;
+
+    /**
+     * Flag stored with a pair when the second entity reacts to the first.
+     */
+    private static final int SECOND_REACTS = 2;
+
+    /**
+     * Below this many entities the parallel mode falls back to the serial one
+     * since handing out the work costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    /**
+     * Smallest number of entities given to a single parallel task.
+     */
+    private static final int MIN_BAND_SIZE = 128;
+
+    /**
+     * A {@link ComponentMapper} for {@link CollideComponent}s that entities have.
+     */
+    private ComponentMapper<CollideComponent> cm = ComponentMapper.getFor(CollideComponent.class);
+
+    /**
+     * Shared index used as the broadphase.
+     */
+    private SpatialIndexSystem spatialIndex;
+
+    /**
+     * Work buffers for the serial mode. Pairs are stored as three ints: the
+     * index of each entity and the reaction flags.
+     */
+    private IntArray candidates = new IntArray();
+    private IntArray pairs = new IntArray();
 
     /**
-     * The max range that entity collision checks are performed at. AKA the
-     * higher this value, the more entities that will be swept up in the culling
-     * process of the processEntity method. Lowering this value would technically
-     * improve performance however since the absolute minimum run time is O(n)
-     * there isn't much of a benefit from changing this value.
+     * Runs the bands in the parallel mode, or null if the platform has none.
      */
-    private static final float COLLISION_MAX_RANGE = 15.0f;
+    private final ParallelExecutor executor;
 
     /**
-     * Creates a new collision system that tracks all entities with a position
-     * and collide component.
+     * Tasks for the parallel mode. Created the first time the parallel mode
+     * is used and reused every tick after that.
+     */
+    private BandTask[] bandTasks;
+
+    /**
+     * Creates a collision system that always searches for pairs serially.
      */
     public CollisionSystem() {
-        super(Family.all(PositionComponent.class, CollideComponent.class).get());
+        this(null);
     }
 
     /**
-     * Called each tick for all the entities being tracked by this system. First
-     * the system culls entities and gets all the entities within a certain
-     * range. Then, from those entities found, we check if any of them collide
-     * with the entity that is being referenced in this tick update.
+     * Creates a collision system.
      *
-     * By culling the entities to a certain range we can limit the number of checks
-     * performed from worst case O(n^2) to O(n) + O(k) where k is the number
-     * of entities found in the new region.
+     * @param executor Executor used when {@link Settings#PARALLEL_COLLISION}
+     *                 is set, or null to always search serially.
+     */
+    public CollisionSystem(ParallelExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        spatialIndex = engine.getSystem(SpatialIndexSystem.class);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        spatialIndex = null;
+    }
+
+    /**
+     * Called each tick. Finds every colliding pair then notifies the entities
+     * involved.
      *
-     * @param entity The entity that we are performing collision checks for.
-     * @param deltaTime The time in ms since last update.
+     * @param deltaTime The time in seconds since last update.
      */
     @Override
-    protected void processEntity(Entity entity, float deltaTime) {
-        //Get entities within a certain range of the entity.
-        ArrayList<PocketRogueEntity> entitiesInRange = Utils.
-                getEntitiesWithinRange(getEntities(), (PocketRogueEntity) entity,
-                        COLLISION_MAX_RANGE);
-        for (PocketRogueEntity otherEntity : entitiesInRange) {
-            if (Utils.entitiesCollide((PocketRogueEntity) entity, otherEntity)) {
-                ((PocketRogueEntity) entity).doCollision(otherEntity);
+    public void update(float deltaTime) {
+        long start = Profiler.start();
+        findCollisions(deltaTime);
+        Profiler.stop(Profiler.COLLISION, start);
+    }
+
+    private void findCollisions(float deltaTime) {
+        int size = spatialIndex.size();
+        if (executor != null && Settings.PARALLEL_COLLISION && size >= PARALLEL_THRESHOLD) {
+            updateParallel(size);
+            return;
+        }
+        pairs.clear();
+        findPairs(0, size, candidates, pairs);
+        dispatchPairs(pairs);
+    }
+
+    /**
+     * Splits the index into bands, finds the pairs for each band on the
+     * executor and then dispatches the bands in order. The index is sorted by cell row
+     * by row, so each band covers a horizontal strip of the world.
+     *
+     * @param size Number of entities in the spatial index.
+     */
+    private void updateParallel(int size) {
+        if (bandTasks == null) {
+            bandTasks = new BandTask[executor.getParallelism() * 4];
+            for (int i = 0; i < bandTasks.length; i++) {
+                bandTasks[i] = new BandTask();
+            }
+        }
+        int bands = Math.min(bandTasks.length, Math.max(1, size / MIN_BAND_SIZE));
+        int bandSize = (size + bands - 1) / bands;
+        for (int band = 0; band < bands; band++) {
+            BandTask task = bandTasks[band];
+            task.start = Math.min(size, band * bandSize);
+            task.end = Math.min(size, task.start + bandSize);
+        }
+        executor.invokeAll(bandTasks, bands);
+        for (int band = 0; band < bands; band++) {
+            dispatchPairs(bandTasks[band].pairs);
+        }
+    }
+
+    /**
+     * Finds the colliding pairs for the entities in a range of the spatial
+     * index. For every entity, only the entities in the cells around it are
+     * considered. Each pair is looked at once: only candidates stored after the
+     * entity in the index are kept, since the pair will have already been found
+     * from the other side otherwise.
+     *
+     * Before any geometry is tested the pair is checked against the collision
+     * layer masks, so pairs that no entity reacts to are skipped for the cost of
+     * two bit tests. Pairs involving a {@link CollideComponent#isContinuous()
+     * continuous} hit box are skipped here and found by
+     * {@link #sweepEntity(int, CollideComponent, IntArray, IntArray)} instead.
+     *
+     * Nothing shared is written to, so several ranges can be searched at once
+     * from different threads as long as each has its own buffers.
+     *
+     * @param start First index in the range.
+     * @param end Index after the last one in the range.
+     * @param candidates Scratch buffer for broadphase queries.
+     * @param out Buffer the pairs are appended to.
+     */
+    private void findPairs(int start, int end, IntArray candidates, IntArray out) {
+        for (int i = start; i < end; i++) {
+            CollideComponent bounds = cm.get(spatialIndex.get(i));
+            if (bounds == null || (bounds.getMask() == 0 && bounds.getLayer() == Layer.NONE)) {
+                continue;
+            }
+            if (bounds.isContinuous()) {
+                sweepEntity(i, bounds, candidates, out);
+                continue;
+            }
+            spatialIndex.queryCandidates(bounds.getMinX(), bounds.getMinY(),
+                    bounds.getMaxX(), bounds.getMaxY(), candidates);
+            for (int c = 0; c < candidates.size; c++) {
+                int otherIndex = candidates.get(c);
+                if (otherIndex <= i) {
+                    continue;
+                }
+                CollideComponent otherBounds = cm.get(spatialIndex.get(otherIndex));
+                if (otherBounds == null || otherBounds.isContinuous()) {
+                    continue;
+                }
+                int flags = reactionFlags(bounds, otherBounds);
+                if (flags != 0 && bounds.overlaps(otherBounds)) {
+                    addPair(out, i, otherIndex, flags);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs swept collision for a fast moving entity. Everything near the
+     * path the entity travelled this tick is tested for a time of impact and
+     * only the earliest impact is kept, since a fast mover is treated as
+     * stopping at the first thing it runs into.
+     *
+     * @param index The entity's index in the spatial index.
+     * @param bounds The entity's hit box.
+     * @param candidates Scratch buffer for broadphase queries.
+     * @param out Buffer the pair is appended to.
+     */
+    private void sweepEntity(int index, CollideComponent bounds, IntArray candidates,
+                             IntArray out) {
+        spatialIndex.queryCandidates(bounds.getSweptMinX(), bounds.getSweptMinY(),
+                bounds.getSweptMaxX(), bounds.getSweptMaxY(), candidates);
+        int firstHit = -1;
+        int firstHitFlags = 0;
+        float firstImpact = Float.MAX_VALUE;
+        for (int c = 0; c < candidates.size; c++) {
+            int otherIndex = candidates.get(c);
+            if (otherIndex == index) {
+                continue;
+            }
+            CollideComponent otherBounds = cm.get(spatialIndex.get(otherIndex));
+            if (otherBounds == null) {
+                continue;
+            }
+            //Two fast movers are only handled from the lower index.
+            if (otherBounds.isContinuous() && otherIndex < index) {
+                continue;
+            }
+            int flags = reactionFlags(bounds, otherBounds);
+            if (flags == 0) {
+                continue;
+            }
+            float impact = bounds.sweep(otherBounds);
+            if (impact >= 0 && impact < firstImpact) {
+                firstImpact = impact;
+                firstHit = otherIndex;
+                firstHitFlags = flags;
             }
         }
+        if (firstHit != -1) {
+            addPair(out, index, firstHit, firstHitFlags);
+        }
+    }
+
+    private static int reactionFlags(CollideComponent bounds, CollideComponent otherBounds) {
+        int flags = 0;
+        if (bounds.reactsTo(otherBounds)) {
+            flags |= FIRST_REACTS;
+        }
+        if (otherBounds.reactsTo(bounds)) {
+            flags |= SECOND_REACTS;
+        }
+        return flags;
+    }
+
+    private static void addPair(IntArray out, int index, int otherIndex, int flags) {
+        out.add(index);
+        out.add(otherIndex);
+        out.add(flags);
+    }
+
+    /**
+     * Notifies both sides of every pair that react to each other.
+     *
+     * @param pairs Pairs found by {@link #findPairs(int, int, IntArray, IntArray)}.
+     */
+    private void dispatchPairs(IntArray pairs) {
+        int[] items = pairs.items;
+        for (int p = 0; p < pairs.size; p += 3) {
+            PocketRogueEntity entity = spatialIndex.get(items[p]);
+            PocketRogueEntity otherEntity = spatialIndex.get(items[p + 1]);
+            int flags = items[p + 2];
+            if ((flags & FIRST_REACTS) != 0) {
+                entity.doCollision(otherEntity);
+            }
+            if ((flags & SECOND_REACTS) != 0) {
+                otherEntity.doCollision(entity);
+            }
+        }
+    }
+
+    /**
+     * Finds the pairs for one band of the spatial index. Each task owns its
+     * buffers so bands never share any mutable state.
+     */
+    private class BandTask implements Runnable {
+
+        private int start;
+        private int end;
+        private IntArray candidates = new IntArray();
+        private IntArray pairs = new IntArray();
+
+        @Override
+        public void run() {
+            pairs.clear();
+            findPairs(start, end, candidates, pairs);
+        }
     }
 
 }
@@ -0,0 +1,108 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+
+import xyz.vec3d.game.GameScreen;
+import xyz.vec3d.game.entities.EntityPools;
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.DeadComponent;
+import xyz.vec3d.game.entities.listeners.EntityRemovalListener;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Removes killed entities from the engine. Entities marked with a
+ * {@link DeadComponent} stay in the engine until the end of the tick, when
+ * {@link GameScreen} calls {@link #flush()} and they are all removed in one
+ * batch. {@link EntityRemovalListener}s then hear about the whole batch at
+ * once, so e.g. a wave ending isn't handled in the middle of another system's
+ * loop. Finally the entities are handed back to the {@link EntityPools} and
+ * the {@link SpatialIndexSystem} is rebuilt, so nothing rendered or queried
+ * before the next tick can find an entity that is back in a pool.
+ *
+ * Like the {@link RenderingSystem} this system doesn't run with the engine.
+ */
+public class DeathSweepSystem extends EntitySystem {
+
+    private Family family;
+
+    private ImmutableArray<Entity> deadEntities;
+
+    private Engine engine;
+
+    private Array<EntityRemovalListener> listeners = new Array<>();
+
+    /**
+     * Entities removed by the current flush. Reused every tick.
+     */
+    private Array<PocketRogueEntity> removed = new Array<>();
+
+    public DeathSweepSystem() {
+        this.family = Family.all(DeadComponent.class).get();
+        setProcessing(false);
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        this.engine = engine;
+        deadEntities = engine.getEntitiesFor(family);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        this.engine = null;
+        deadEntities = null;
+    }
+
+    /**
+     * Adds a listener told about every batch of removed entities. Listeners
+     * are called in the order they were added.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(EntityRemovalListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EntityRemovalListener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    /**
+     * Removes every dead entity from the engine, notifies the listeners,
+     * returns the entities to their pools and rebuilds the spatial index
+     * without them. Must be called outside of {@link Engine#update(float)} so
+     * the removals happen right away.
+     */
+    public void flush() {
+        if (deadEntities == null || deadEntities.size() == 0) {
+            return;
+        }
+        //Copied first since removing entities shrinks the family.
+        for (int i = 0; i < deadEntities.size(); i++) {
+            removed.add((PocketRogueEntity) deadEntities.get(i));
+        }
+        for (int i = 0; i < removed.size; i++) {
+            engine.removeEntity(removed.get(i));
+        }
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).entitiesRemoved(removed);
+        }
+        for (int i = 0; i < removed.size; i++) {
+            EntityPools.free(removed.get(i));
+        }
+        removed.clear();
+        //The index was built earlier in the tick and still holds the removed entities.
+        SpatialIndexSystem spatialIndex = engine.getSystem(SpatialIndexSystem.class);
+        if (spatialIndex != null) {
+            spatialIndex.update(0);
+        }
+    }
+}
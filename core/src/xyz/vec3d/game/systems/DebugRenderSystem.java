@@ -0,0 +1,176 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+import xyz.vec3d.game.GameScreen;
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.CollideComponent;
+import xyz.vec3d.game.model.map.FlowField;
+import xyz.vec3d.game.utils.SpatialHashGrid;
+
+/**
+ * Created by Daron on 6/12/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Draws debug shapes over the world: the occupied cells of the spatial index,
+ * the flow field enemies follow and every hit box on screen. Everything is
+ * drawn in one {@link ShapeRenderer} pass after the entities, and only while
+ * {@link GameScreen#IS_DEBUG} is set. Otherwise nothing is begun or flushed,
+ * and the ShapeRenderer isn't even created until debug drawing is first
+ * turned on.
+ *
+ * Like the {@link RenderingSystem} this system doesn't run with the engine;
+ * {@link GameScreen} calls {@link #render()} each frame.
+ */
+public class DebugRenderSystem extends EntitySystem implements Disposable {
+
+    private static final Color GRID_COLOR = new Color(0.2f, 0.4f, 1f, 1f);
+    private static final Color FLOW_COLOR = new Color(0.2f, 1f, 0.2f, 1f);
+    private static final Color HIT_BOX_COLOR = Color.RED;
+
+    /**
+     * Length of a flow field arrow, as a fraction of a tile.
+     */
+    private static final float ARROW_LENGTH = 0.4f;
+
+    /**
+     * A {@link ComponentMapper} for {@link CollideComponent}s that entities have.
+     */
+    private ComponentMapper<CollideComponent> cm = ComponentMapper.getFor(CollideComponent.class);
+
+    private final OrthographicCamera camera;
+
+    private ShapeRenderer shapeRenderer;
+
+    private SpatialIndexSystem spatialIndex;
+    private NavigationSystem navigationSystem;
+
+    /**
+     * Entities on screen this frame.
+     */
+    private Array<PocketRogueEntity> visibleEntities = new Array<>();
+
+    /**
+     * Creates a new debug render system.
+     *
+     * @param camera The camera looking into the world.
+     */
+    public DebugRenderSystem(OrthographicCamera camera) {
+        this.camera = camera;
+        setProcessing(false);
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        spatialIndex = engine.getSystem(SpatialIndexSystem.class);
+        navigationSystem = engine.getSystem(NavigationSystem.class);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        spatialIndex = null;
+        navigationSystem = null;
+    }
+
+    /**
+     * Draws the debug shapes if debug mode is on. Must be called outside of any
+     * other batch's begin/end.
+     */
+    public void render() {
+        if (!GameScreen.IS_DEBUG) {
+            return;
+        }
+        if (shapeRenderer == null) {
+            shapeRenderer = new ShapeRenderer();
+        }
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2;
+        float minX = camera.position.x - halfWidth;
+        float minY = camera.position.y - halfHeight;
+        float maxX = camera.position.x + halfWidth;
+        float maxY = camera.position.y + halfHeight;
+
+        shapeRenderer.setProjectionMatrix(camera.combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        if (spatialIndex != null) {
+            drawGrid(spatialIndex.getGrid(), minX, minY, maxX, maxY);
+        }
+        if (navigationSystem != null) {
+            drawFlowField(navigationSystem.getFlowField(), minX, minY, maxX, maxY);
+        }
+        if (spatialIndex != null) {
+            drawHitBoxes(minX, minY, maxX, maxY);
+        }
+        shapeRenderer.end();
+    }
+
+    /**
+     * Outlines every cell of the spatial index that holds an entity.
+     */
+    private void drawGrid(SpatialHashGrid grid, float minX, float minY, float maxX,
+                          float maxY) {
+        float cellSize = grid.getCellSize();
+        shapeRenderer.setColor(GRID_COLOR);
+        for (int y = (int) (minY / cellSize); y <= (int) (maxY / cellSize); y++) {
+            for (int x = (int) (minX / cellSize); x <= (int) (maxX / cellSize); x++) {
+                if (grid.getCellCount(x, y) > 0) {
+                    shapeRenderer.rect(x * cellSize, y * cellSize, cellSize, cellSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws a line from the center of every tile pointing the way the flow
+     * field sends entities on that tile.
+     */
+    private void drawFlowField(FlowField flowField, float minX, float minY, float maxX,
+                               float maxY) {
+        shapeRenderer.setColor(FLOW_COLOR);
+        for (int y = (int) Math.floor(minY); y <= (int) maxY; y++) {
+            for (int x = (int) Math.floor(minX); x <= (int) maxX; x++) {
+                byte direction = flowField.getDirection(x, y);
+                if (direction == FlowField.NONE) {
+                    continue;
+                }
+                float centerX = x + 0.5f;
+                float centerY = y + 0.5f;
+                shapeRenderer.line(centerX, centerY,
+                        centerX + FlowField.getDirectionX(direction) * ARROW_LENGTH,
+                        centerY + FlowField.getDirectionY(direction) * ARROW_LENGTH);
+            }
+        }
+    }
+
+    /**
+     * Outlines the hit box of every entity on screen.
+     */
+    private void drawHitBoxes(float minX, float minY, float maxX, float maxY) {
+        shapeRenderer.setColor(HIT_BOX_COLOR);
+        spatialIndex.queryArea(minX, minY, maxX, maxY, visibleEntities);
+        for (int i = 0; i < visibleEntities.size; i++) {
+            CollideComponent bounds = cm.get(visibleEntities.get(i));
+            if (bounds != null) {
+                shapeRenderer.rect(bounds.getMinX(), bounds.getMinY(), bounds.getWidth(),
+                        bounds.getHeight());
+            }
+        }
+        visibleEntities.clear();
+    }
+
+    @Override
+    public void dispose() {
+        if (shapeRenderer != null) {
+            shapeRenderer.dispose();
+            shapeRenderer = null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+
+import xyz.vec3d.game.entities.components.FiringComponent;
+import xyz.vec3d.game.utils.Profiler;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Ticks the cooldown between shots of every entity that can fire projectiles.
+ */
+public class FiringCooldownSystem extends IteratingSystem {
+
+    /**
+     * A {@link ComponentMapper} for {@link FiringComponent}s that entities have.
+     */
+    private ComponentMapper<FiringComponent> fm = ComponentMapper.getFor(FiringComponent.class);
+
+    public FiringCooldownSystem() {
+        super(Family.all(FiringComponent.class).get());
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        long start = Profiler.start();
+        super.update(deltaTime);
+        Profiler.stop(Profiler.FIRING_COOLDOWN, start);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        fm.get(entity).getFiringSystem().update(deltaTime);
+    }
+}
@@ -0,0 +1,65 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IntervalIteratingSystem;
+
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.DeadComponent;
+import xyz.vec3d.game.entities.components.LifetimeComponent;
+import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.utils.Profiler;
+
+/**
+ * Created by Daron on 6/14/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Kills entities, such as projectiles, once their {@link LifetimeComponent}
+ * runs out. Lifetimes are seconds long so they are checked a few times a
+ * second rather than every step. An entity that expires when it stops moving
+ * may sit still for up to one interval before it is killed.
+ */
+public class LifetimeSystem extends IntervalIteratingSystem {
+
+    /**
+     * Seconds between lifetime checks.
+     */
+    private static final float INTERVAL = 0.05f;
+
+    /**
+     * A {@link ComponentMapper} for {@link LifetimeComponent}s that entities have.
+     */
+    private ComponentMapper<LifetimeComponent> lm = ComponentMapper.getFor(LifetimeComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link VelocityComponent}s that entities have.
+     */
+    private ComponentMapper<VelocityComponent> vm = ComponentMapper.getFor(VelocityComponent.class);
+
+    public LifetimeSystem() {
+        super(Family.all(LifetimeComponent.class).exclude(DeadComponent.class).get(), INTERVAL);
+    }
+
+    @Override
+    protected void updateInterval() {
+        long start = Profiler.start();
+        super.updateInterval();
+        Profiler.stop(Profiler.LIFETIME, start);
+    }
+
+    @Override
+    protected void processEntity(Entity entity) {
+        LifetimeComponent lifetimeComponent = lm.get(entity);
+        boolean expired = lifetimeComponent.age(INTERVAL);
+        if (!expired && lifetimeComponent.expiresWhenStopped()) {
+            VelocityComponent velocityComponent = vm.get(entity);
+            expired = velocityComponent != null && velocityComponent.getX() == 0
+                    && velocityComponent.getY() == 0;
+        }
+        if (expired) {
+            ((PocketRogueEntity) entity).kill();
+        }
+    }
+}
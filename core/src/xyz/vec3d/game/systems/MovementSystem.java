@@ -1,22 +1,44 @@
 package xyz.vec3d.game.systems;
 
 import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 
 import xyz.vec3d.game.Settings;
 import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.CollideComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.entities.components.TransformStore;
 import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.model.map.TileCollisionMap;
+import xyz.vec3d.game.utils.Profiler;
 
 /**
  * Created by darakelian on 7/14/2016.
  * Copyright vec3d.xyz 2016
  * All rights reserved
+ *
+ * Moves entities by their velocity each simulation step. Velocities are in
+ * world units per 1/60th of a second and are scaled by the step's delta time,
+ * so entities move at the same speed no matter what rate the simulation runs at.
+ *
+ * When {@link Settings#DENSE_TRANSFORMS} is set the positions and velocities of
+ * every entity in the system are moved into a {@link TransformStore} and
+ * integrated in a single loop over its arrays. Otherwise each entity is moved
+ * one at a time through its components.
  */
 public class MovementSystem extends IteratingSystem {
 
+    /**
+     * The step rate velocities are expressed against.
+     */
+    private static final float VELOCITY_HZ = 60f;
+
     /**
      * A {@link ComponentMapper} for {@link PositionComponent}s that entities have.
      */
@@ -27,38 +49,198 @@ public class MovementSystem extends IteratingSystem {
      */
     private ComponentMapper<VelocityComponent> vm = ComponentMapper.getFor(VelocityComponent.class);
 
+    /**
+     * A {@link ComponentMapper} for {@link CollideComponent}s that entities have.
+     */
+    private ComponentMapper<CollideComponent> cm = ComponentMapper.getFor(CollideComponent.class);
+
+    /**
+     * Solid tiles of the world map that entities can't move through.
+     */
+    private TileCollisionMap tileCollisionMap;
+
+    /**
+     * Dense storage for the entities in the system, or null if entities keep
+     * their own positions and velocities.
+     */
+    private TransformStore transformStore;
+
+    /**
+     * Adds and removes entities from the {@link #transformStore}.
+     */
+    private EntityListener transformStoreListener;
+
+    /**
+     * Reused when moving entities against the map.
+     */
+    private Vector2 moveScratch = new Vector2();
+
     /**1
      * Create a new MovementSystem composed of entities that have both a velocity
      * component as well as a position component.
+     *
+     * @param tileCollisionMap The solid tiles of the map being played on.
      */
-    public MovementSystem() {
+    public MovementSystem(TileCollisionMap tileCollisionMap) {
         super(Family.all(VelocityComponent.class, PositionComponent.class).get());
+        this.tileCollisionMap = tileCollisionMap;
+        if (Settings.DENSE_TRANSFORMS) {
+            this.transformStore = new TransformStore();
+            this.transformStoreListener = new EntityListener() {
+                @Override
+                public void entityAdded(Entity entity) {
+                    addToStore(entity);
+                }
+
+                @Override
+                public void entityRemoved(Entity entity) {
+                    transformStore.remove(pm.get(entity));
+                }
+            };
+        }
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        super.addedToEngine(engine);
+        if (transformStore != null) {
+            engine.addEntityListener(getFamily(), transformStoreListener);
+            for (Entity entity : getEntities()) {
+                addToStore(entity);
+            }
+        }
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        if (transformStore != null) {
+            engine.removeEntityListener(transformStoreListener);
+            for (Entity entity : getEntities()) {
+                transformStore.remove(pm.get(entity));
+            }
+        }
+        super.removedFromEngine(engine);
+    }
+
+    private void addToStore(Entity entity) {
+        CollideComponent collideComponent = cm.get(entity);
+        float boxWidth = collideComponent != null ? collideComponent.getWidth() : 1;
+        float boxHeight = collideComponent != null ? collideComponent.getHeight() : 1;
+        transformStore.add(entity, pm.get(entity), vm.get(entity), boxWidth, boxHeight);
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        long start = Profiler.start();
+        moveEntities(deltaTime);
+        Profiler.stop(Profiler.MOVEMENT, start);
+    }
+
+    private void moveEntities(float deltaTime) {
+        if (transformStore == null) {
+            super.update(deltaTime);
+            return;
+        }
+        TransformStore store = transformStore;
+        int count = store.size();
+        float scale = deltaTime * VELOCITY_HZ;
+        float[] x = store.x;
+        float[] y = store.y;
+        float[] velocityX = store.velocityX;
+        float[] velocityY = store.velocityY;
+        System.arraycopy(x, 0, store.previousX, 0, count);
+        System.arraycopy(y, 0, store.previousY, 0, count);
+        if (tileCollisionMap.getSolidCount() == 0) {
+            for (int i = 0; i < count; i++) {
+                x[i] += velocityX[i] * scale;
+                y[i] += velocityY[i] * scale;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                moveScratch.set(x[i], y[i]);
+                int blocked = tileCollisionMap.move(moveScratch, velocityX[i] * scale,
+                        velocityY[i] * scale, store.width[i], store.height[i]);
+                x[i] = moveScratch.x;
+                y[i] = moveScratch.y;
+                if ((blocked & TileCollisionMap.BLOCKED_X) != 0) {
+                    velocityX[i] = 0;
+                }
+                if ((blocked & TileCollisionMap.BLOCKED_Y) != 0) {
+                    velocityY[i] = 0;
+                }
+            }
+        }
+        //Boundary checks here
+        float maxX = Settings.MAX_WORLD_WIDTH - 1;
+        float maxY = Settings.MAX_WORLD_HEIGHT - 1;
+        for (int i = 0; i < count; i++) {
+            if (x[i] <= 0 || y[i] <= 0 || x[i] >= maxX || y[i] >= maxY) {
+                x[i] = MathUtils.clamp(x[i], 0, maxX);
+                y[i] = MathUtils.clamp(y[i], 0, maxY);
+                velocityX[i] = 0;
+                velocityY[i] = 0;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            Entity entity = store.getEntity(i);
+            if (entity instanceof PocketRogueEntity) {
+                ((PocketRogueEntity) entity).setAnimationFromVelocity(vm.get(entity).getVelocity());
+            }
+            CollideComponent collideComponent = cm.get(entity);
+            if (collideComponent != null) {
+                collideComponent.moveTo(x[i], y[i]);
+            }
+        }
     }
 
     protected void processEntity(Entity entity, float deltaTime) {
         PositionComponent positionComponent = pm.get(entity);
         VelocityComponent velocityComponent = vm.get(entity);
-        positionComponent.getPosition().add(velocityComponent.getVelocity());
-        if (entity instanceof PocketRogueEntity) {
-            //Update animation here.
-            ((PocketRogueEntity) entity).setAnimationFromVelocity(velocityComponent.getVelocity());
+        CollideComponent collideComponent = cm.get(entity);
+        positionComponent.savePreviousPosition();
+        float scale = deltaTime * VELOCITY_HZ;
+        float velocityX = velocityComponent.getX();
+        float velocityY = velocityComponent.getY();
+        //Move against the map's solid tiles, stopping on any axis that hits a wall.
+        float boxWidth = collideComponent != null ? collideComponent.getWidth() : 1;
+        float boxHeight = collideComponent != null ? collideComponent.getHeight() : 1;
+        moveScratch.set(positionComponent.getX(), positionComponent.getY());
+        int blocked = tileCollisionMap.move(moveScratch, velocityX * scale,
+                velocityY * scale, boxWidth, boxHeight);
+        if ((blocked & TileCollisionMap.BLOCKED_X) != 0) {
+            velocityX = 0;
+        }
+        if ((blocked & TileCollisionMap.BLOCKED_Y) != 0) {
+            velocityY = 0;
         }
+        float x = moveScratch.x;
+        float y = moveScratch.y;
         //Boundary checks here
-        if (positionComponent.getPosition().x <= 0) {
-            positionComponent.getPosition().x = 0;
-            velocityComponent.getVelocity().set(0f, 0f);
+        if (x <= 0) {
+            x = 0;
+            velocityX = velocityY = 0;
         }
-        if (positionComponent.getPosition().y <= 0) {
-            positionComponent.getPosition().y = 0;
-            velocityComponent.getVelocity().set(0f, 0f);
+        if (y <= 0) {
+            y = 0;
+            velocityX = velocityY = 0;
         }
-        if (positionComponent.getPosition().x + 1 >= Settings.MAX_WORLD_WIDTH) {
-            positionComponent.getPosition().x = Settings.MAX_WORLD_WIDTH - 1;
-            velocityComponent.getVelocity().set(0f, 0f);
+        if (x + 1 >= Settings.MAX_WORLD_WIDTH) {
+            x = Settings.MAX_WORLD_WIDTH - 1;
+            velocityX = velocityY = 0;
+        }
+        if (y + 1 >= Settings.MAX_WORLD_HEIGHT) {
+            y = Settings.MAX_WORLD_HEIGHT - 1;
+            velocityX = velocityY = 0;
+        }
+        positionComponent.setPosition(x, y);
+        velocityComponent.setVelocity(velocityX, velocityY);
+        if (entity instanceof PocketRogueEntity) {
+            //Update animation here.
+            ((PocketRogueEntity) entity).setAnimationFromVelocity(velocityComponent.getVelocity());
         }
-        if (positionComponent.getPosition().y + 1 >= Settings.MAX_WORLD_HEIGHT) {
-            positionComponent.getPosition().y = Settings.MAX_WORLD_HEIGHT - 1;
-            velocityComponent.getVelocity().set(0f, 0f);
+        //Move the hit box along with the entity.
+        if (collideComponent != null) {
+            collideComponent.moveTo(x, y);
         }
     }
 
@@ -0,0 +1,270 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.MovementSpeedComponent;
+import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.entities.components.SteeringComponent;
+import xyz.vec3d.game.entities.components.VelocityComponent;
+import xyz.vec3d.game.model.map.FlowField;
+import xyz.vec3d.game.model.map.HierarchicalPathfinder;
+import xyz.vec3d.game.model.map.HierarchicalPathfinder.PathRequest;
+import xyz.vec3d.game.model.map.TileCollisionMap;
+import xyz.vec3d.game.utils.Profiler;
+
+/**
+ * Created by Daron on 6/8/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Steers every entity with a {@link SteeringComponent} towards a target entity,
+ * usually the player. All entities share one {@link FlowField} which is only
+ * rebuilt when the target walks into a different tile, so each steered entity
+ * costs a single lookup per tick no matter how many of them there are.
+ *
+ * Entities that have been given their own target tile instead follow paths from
+ * a {@link HierarchicalPathfinder}. Path searches are spread out over ticks with
+ * at most {@link #PATH_EXPANSION_BUDGET} worth of work done per tick, and
+ * entities stand still while they wait for theirs. Entities whose target can't
+ * be reached give up on it and go back after the player.
+ *
+ * This system sets velocities so it should be added to the engine before the
+ * {@link MovementSystem}.
+ */
+public class NavigationSystem extends IteratingSystem {
+
+    /**
+     * Max amount of pathfinder work done each tick, see
+     * {@link HierarchicalPathfinder#update(int)}.
+     */
+    private static final int PATH_EXPANSION_BUDGET = 200;
+
+    /**
+     * A {@link ComponentMapper} for {@link PositionComponent}s that entities have.
+     */
+    private ComponentMapper<PositionComponent> pm = ComponentMapper.getFor(PositionComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link VelocityComponent}s that entities have.
+     */
+    private ComponentMapper<VelocityComponent> vm = ComponentMapper.getFor(VelocityComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link SteeringComponent}s that entities have.
+     */
+    private ComponentMapper<SteeringComponent> sm = ComponentMapper.getFor(SteeringComponent.class);
+
+    /**
+     * A {@link ComponentMapper} for {@link MovementSpeedComponent}s that entities have.
+     */
+    private ComponentMapper<MovementSpeedComponent> msm = ComponentMapper.getFor(MovementSpeedComponent.class);
+
+    private FlowField flowField;
+
+    private HierarchicalPathfinder pathfinder;
+
+    /**
+     * The entity everything is steered towards.
+     */
+    private PocketRogueEntity target;
+
+    /**
+     * Center of the target this tick.
+     */
+    private float targetX;
+    private float targetY;
+
+    /**
+     * Creates a navigation system for a map.
+     *
+     * @param tileCollisionMap The solid tiles of the map being played on.
+     */
+    public NavigationSystem(TileCollisionMap tileCollisionMap) {
+        super(Family.all(SteeringComponent.class, PositionComponent.class,
+                VelocityComponent.class).get());
+        this.flowField = new FlowField(tileCollisionMap);
+        this.pathfinder = new HierarchicalPathfinder(tileCollisionMap);
+    }
+
+    public void setTarget(PocketRogueEntity target) {
+        this.target = target;
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    public HierarchicalPathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    /**
+     * Rebuilds the flow field if the target has changed tiles, steers every
+     * entity then works on any path requests.
+     *
+     * @param deltaTime The time in seconds since last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        long start = Profiler.start();
+        steerEntities(deltaTime);
+        Profiler.stop(Profiler.NAVIGATION, start);
+    }
+
+    private void steerEntities(float deltaTime) {
+        if (target == null) {
+            return;
+        }
+        PositionComponent targetPosition = pm.get(target);
+        float half = target.getSize() / 2;
+        targetX = targetPosition.getX() + half;
+        targetY = targetPosition.getY() + half;
+        flowField.compute((int) Math.floor(targetX), (int) Math.floor(targetY));
+        super.update(deltaTime);
+        pathfinder.update(PATH_EXPANSION_BUDGET);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float deltaTime) {
+        PositionComponent positionComponent = pm.get(entity);
+        VelocityComponent velocityComponent = vm.get(entity);
+        SteeringComponent steeringComponent = sm.get(entity);
+        MovementSpeedComponent movementSpeedComponent = msm.get(entity);
+        float moveSpeed = movementSpeedComponent != null ? movementSpeedComponent.getMoveSpeed() : 0;
+        float half = entity instanceof PocketRogueEntity ? ((PocketRogueEntity) entity).getSize() / 2 : 0.5f;
+        float x = positionComponent.getX() + half;
+        float y = positionComponent.getY() + half;
+        if (steeringComponent.hasTarget()) {
+            followPath(steeringComponent, velocityComponent, x, y, moveSpeed);
+            return;
+        }
+        float deltaX = targetX - x;
+        float deltaY = targetY - y;
+        float distance2 = deltaX * deltaX + deltaY * deltaY;
+        float stopDistance = steeringComponent.getStopDistance();
+        if (distance2 <= stopDistance * stopDistance) {
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        int tileX = (int) Math.floor(x);
+        int tileY = (int) Math.floor(y);
+        byte direction = flowField.getDirection(tileX, tileY);
+        if (direction != FlowField.NONE) {
+            steerTowardsNextTile(velocityComponent, x, y, tileX, tileY, direction, moveSpeed);
+            return;
+        }
+        //In the target's tile there is nothing left to follow so head straight for it.
+        if (tileX == flowField.getTargetX() && tileY == flowField.getTargetY()) {
+            float distance = (float) Math.sqrt(distance2);
+            velocityComponent.setVelocity(deltaX / distance * moveSpeed,
+                    deltaY / distance * moveSpeed);
+            return;
+        }
+        velocityComponent.setVelocity(0, 0);
+    }
+
+    /**
+     * Steers an entity along the path to its own target tile, requesting a path
+     * first if it doesn't have one.
+     *
+     * @param steeringComponent The entity's steering component.
+     * @param velocityComponent The entity's velocity component.
+     * @param x X coordinate of the entity's center.
+     * @param y Y coordinate of the entity's center.
+     * @param moveSpeed The entity's movement speed.
+     */
+    private void followPath(SteeringComponent steeringComponent,
+                            VelocityComponent velocityComponent, float x, float y,
+                            float moveSpeed) {
+        int tileX = (int) Math.floor(x);
+        int tileY = (int) Math.floor(y);
+        int goalX = steeringComponent.getTargetX();
+        int goalY = steeringComponent.getTargetY();
+        if (tileX == goalX && tileY == goalY) {
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        PathRequest path = steeringComponent.getPath();
+        if (!steeringComponent.hasPath()) {
+            pathfinder.request(path, tileX, tileY, goalX, goalY);
+            steeringComponent.startPath();
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        if (!path.isDone()) {
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        //The map doesn't change so the target will never be reachable, go back
+        //after the player instead.
+        if (path.isFailed()) {
+            steeringComponent.clearTarget();
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        //Move on past any nodes that have been reached.
+        int[] nodes = path.getNodes();
+        while (steeringComponent.getWaypoint() < nodes.length) {
+            int node = nodes[steeringComponent.getWaypoint()];
+            if (pathfinder.getNodeX(node) != tileX || pathfinder.getNodeY(node) != tileY) {
+                break;
+            }
+            steeringComponent.nextWaypoint();
+        }
+        FlowField field;
+        int waypointX;
+        int waypointY;
+        if (steeringComponent.getWaypoint() < nodes.length) {
+            int node = nodes[steeringComponent.getWaypoint()];
+            field = pathfinder.getNodeField(node);
+            waypointX = pathfinder.getNodeX(node);
+            waypointY = pathfinder.getNodeY(node);
+        } else {
+            field = path.getGoalField();
+            waypointX = goalX;
+            waypointY = goalY;
+        }
+        byte direction = field.getDirection(tileX, tileY);
+        if (direction != FlowField.NONE) {
+            steerTowardsNextTile(velocityComponent, x, y, tileX, tileY, direction, moveSpeed);
+            return;
+        }
+        //Crossing into the next cluster, the waypoint is right next to us.
+        if (Math.abs(waypointX - tileX) <= 1 && Math.abs(waypointY - tileY) <= 1) {
+            steerTowards(velocityComponent, x, y, waypointX + 0.5f, waypointY + 0.5f, moveSpeed);
+            return;
+        }
+        //Knocked off the path, find a new one.
+        steeringComponent.clearPath();
+        velocityComponent.setVelocity(0, 0);
+    }
+
+    /**
+     * Steers an entity towards the center of the tile one step away in a flow
+     * field direction. Aiming for tile centers rather than just along the
+     * direction keeps entities lined up with the tiles so they don't catch on
+     * the corners of walls.
+     */
+    private void steerTowardsNextTile(VelocityComponent velocityComponent, float x, float y,
+                                      int tileX, int tileY, byte direction, float moveSpeed) {
+        float nextX = tileX + 0.5f + Math.signum(FlowField.getDirectionX(direction));
+        float nextY = tileY + 0.5f + Math.signum(FlowField.getDirectionY(direction));
+        steerTowards(velocityComponent, x, y, nextX, nextY, moveSpeed);
+    }
+
+    private void steerTowards(VelocityComponent velocityComponent, float x, float y,
+                              float targetX, float targetY, float moveSpeed) {
+        float deltaX = targetX - x;
+        float deltaY = targetY - y;
+        float distance = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        if (distance == 0) {
+            velocityComponent.setVelocity(0, 0);
+            return;
+        }
+        velocityComponent.setVelocity(deltaX / distance * moveSpeed, deltaY / distance * moveSpeed);
+    }
+}
@@ -1,23 +1,27 @@
 package xyz.vec3d.game.systems;
 
 import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Array;
 
 import xyz.vec3d.game.GameScreen;
-import xyz.vec3d.game.PocketRogue;
+import xyz.vec3d.game.Settings;
+import xyz.vec3d.game.assets.AssetRegistry;
 import xyz.vec3d.game.entities.PocketRogueEntity;
 import xyz.vec3d.game.entities.components.AnimationComponent;
 import xyz.vec3d.game.entities.components.HealthComponent;
 import xyz.vec3d.game.entities.components.PositionComponent;
 import xyz.vec3d.game.entities.components.RotationComponent;
 import xyz.vec3d.game.entities.components.TextureComponent;
+import xyz.vec3d.game.gfx.RenderQueue;
 
 /**
  * Created by darakelian on 7/7/2016.
@@ -29,6 +33,15 @@ import xyz.vec3d.game.entities.components.TextureComponent;
  * which means it implements a method that gets called for each entity that the
  * system is responsible for. That method gets the relevant components from the
  * entity representing position and the {@link Texture} to draw for the entity.
+ *
+ * Rendering runs once per frame while the rest of the engine runs at a fixed
+ * simulation rate, so the system is not processed by the engine. Instead the
+ * {@link GameScreen} calls {@link #render(float, float)} after simulating and
+ * entities are drawn between their previous and current positions.
+ *
+ * Only entities inside the camera's view are drawn. When a
+ * {@link SpatialIndexSystem} is in the engine it is used to find them without
+ * looking at every entity.
  */
 public class RenderingSystem extends IteratingSystem {
 
@@ -58,19 +71,117 @@ public class RenderingSystem extends IteratingSystem {
      * The {@link SpriteBatch} being used to draw entities.
      */
     private SpriteBatch batch;
-    private ShapeRenderer shapeRenderer;
+
+    /**
+     * How far the current frame is between the last two simulation steps.
+     */
+    private float alpha = 1;
+
+    /**
+     * Sprites queued up for the current frame.
+     */
+    private RenderQueue renderQueue = new RenderQueue();
+
+    private TextureRegion healthBar;
+
+    private int lastDrawCalls;
+
+    /**
+     * Extra space around the camera's view that is still drawn. Covers sprites
+     * drawn outside of their entity's bounds, such as health bars, as well as
+     * entities drawn a little behind where they are because of interpolation.
+     */
+    private static final float CULL_MARGIN = 1.5f;
+
+    /**
+     * The camera entities are culled against.
+     */
+    private OrthographicCamera camera;
+
+    private SpatialIndexSystem spatialIndex;
+
+    /**
+     * Entities found in the camera's view this frame.
+     */
+    private Array<PocketRogueEntity> visibleEntities = new Array<PocketRogueEntity>();
 
     /**
      * Creates a new {@link RenderingSystem} for the game engine from a provided
      * {@link SpriteBatch}.
      *
      * @param batch The SpriteBatch provided from the {@link xyz.vec3d.game.GameScreen}.
+     * @param camera The camera looking into the world, used to skip entities
+     *               that are off screen.
      */
-    public RenderingSystem(SpriteBatch batch, ShapeRenderer shapeRenderer) {
+    public RenderingSystem(SpriteBatch batch, OrthographicCamera camera) {
         super(Family.all(PositionComponent.class).one(TextureComponent.class,
                 AnimationComponent.class).get());
         this.batch = batch;
-        this.shapeRenderer = shapeRenderer;
+        this.camera = camera;
+        this.healthBar = AssetRegistry.HEALTH_BAR.get();
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        super.addedToEngine(engine);
+        spatialIndex = engine.getSystem(SpatialIndexSystem.class);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        super.removedFromEngine(engine);
+        spatialIndex = null;
+    }
+
+    /**
+     * Draws every entity in the system that is on screen. Entities are first
+     * queued up then drawn together, sorted to keep texture switches down.
+     *
+     * @param deltaTime The time in seconds since the last frame.
+     * @param alpha How far the frame is between the previous simulation step
+     *              (0) and the current one (1).
+     */
+    public void render(float deltaTime, float alpha) {
+        this.alpha = alpha;
+        //Off screen entities keep animating unless told not to.
+        if (!Settings.SKIP_OFFSCREEN_ANIMATION) {
+            for (Entity entity : getEntities()) {
+                AnimationComponent animationComponent = am.get(entity);
+                if (animationComponent != null) {
+                    animationComponent.addAnimationTime(deltaTime);
+                }
+            }
+        }
+        float halfWidth = camera.viewportWidth * camera.zoom / 2 + CULL_MARGIN;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2 + CULL_MARGIN;
+        float minX = camera.position.x - halfWidth;
+        float minY = camera.position.y - halfHeight;
+        float maxX = camera.position.x + halfWidth;
+        float maxY = camera.position.y + halfHeight;
+        if (spatialIndex != null) {
+            spatialIndex.queryArea(minX, minY, maxX, maxY, visibleEntities);
+            Family family = getFamily();
+            for (int i = 0; i < visibleEntities.size; i++) {
+                PocketRogueEntity entity = visibleEntities.get(i);
+                if (family.matches(entity)) {
+                    processEntity(entity, deltaTime);
+                }
+            }
+            visibleEntities.clear();
+        } else {
+            for (Entity entity : getEntities()) {
+                PositionComponent positionComponent = pm.get(entity);
+                float x = positionComponent.getX();
+                float y = positionComponent.getY();
+                if (x < maxX && x + 1 > minX && y < maxY && y + 1 > minY) {
+                    processEntity(entity, deltaTime);
+                }
+            }
+        }
+        int renderCalls = batch.renderCalls;
+        renderQueue.flush(batch);
+        batch.flush();
+        lastDrawCalls = batch.renderCalls - renderCalls;
     }
 
     /**
@@ -88,35 +199,34 @@ public class RenderingSystem extends IteratingSystem {
         PositionComponent positionComponent = pm.get(entity);
         AnimationComponent animationComponent = am.get(entity);
         HealthComponent healthComponent = hm.get(entity);
+        PocketRogueEntity pocketRogueEntity = (PocketRogueEntity) entity;
+        float size = pocketRogueEntity.getSize();
+        int layer = pocketRogueEntity.getRenderLayer();
 
-        float x = positionComponent.getPosition().x;
-        float y = positionComponent.getPosition().y;
-
-        //If in debug mode, draw a red square around hitbox
-        if (GameScreen.IS_DEBUG) {
-            shapeRenderer.rect(x, y, 1, 1);
-        }
+        float x = positionComponent.getInterpolatedX(alpha);
+        float y = positionComponent.getInterpolatedY(alpha);
 
         //Try to draw a health bar for entities that have health.
         if (healthComponent != null) {
             float healthBarScale = healthComponent.getPercentHealthRemainingScale();
-            Texture healthBar = PocketRogue.getAsset("healthBar.png");
-            batch.draw(healthBar, x, y + 1.1f, 1 * healthBarScale, 0.125f);
+            renderQueue.add(RenderQueue.LAYER_OVERLAY, healthBar, x, y + 1.1f,
+                    1 * healthBarScale, 0.125f);
         }
 
         //First see if the entity has an animation that needs to play.
         if (animationComponent != null) {
-            boolean moving = ((PocketRogueEntity) entity).isMoving();
-            animationComponent.addAnimationTime(deltaTime);
-            /*float animationTime = animationComponent.getAnimationTime();
-            TextureRegion animationFrame = animationComponent.getAnimation()
-                    .getKeyFrame(moving ? animationTime : 0, true);
-            batch.draw(animationFrame, x, y, 1, 1);*/
+            boolean moving = pocketRogueEntity.isMoving();
+            if (Settings.SKIP_OFFSCREEN_ANIMATION) {
+                animationComponent.addAnimationTime(deltaTime);
+            }
             float animationTime = animationComponent.getAnimationTime();
-            for (Animation animation : animationComponent.getAnimations()) {
+            //Each animation goes on its own layer so they stay stacked in order.
+            int animationLayer = layer;
+            for (int i = 0; i < animationComponent.getActiveCount(); i++) {
+                Animation animation = animationComponent.getActiveAnimation(i);
                 TextureRegion animationFrame = animation.getKeyFrame(moving ?
                         animationTime : 0, true);
-                batch.draw(animationFrame, x, y, ((PocketRogueEntity) entity).getSize(), ((PocketRogueEntity) entity).getSize());
+                renderQueue.add(animationLayer++, animationFrame, x, y, size, size);
             }
             return;
         }
@@ -129,11 +239,25 @@ public class RenderingSystem extends IteratingSystem {
         //size.
         RotationComponent rotationComponent = rm.get(entity);
         if (rotationComponent != null) {
-            batch.draw(texture, x, y, 0.5f, 0.5f, 1, 1, 1, 1,
-                    rotationComponent.getRotationAngle() - 90f, false);
+            renderQueue.add(layer, texture, x, y, 0.5f, 0.5f, 1, 1,
+                    rotationComponent.getRotationAngle() - 90f);
             return;
         }
-        batch.draw(texture, x, y, ((PocketRogueEntity) entity).getSize(), ((PocketRogueEntity) entity).getSize());
+        renderQueue.add(layer, texture, x, y, size, size);
+    }
+
+    public RenderQueue getRenderQueue() {
+        return renderQueue;
+    }
+
+    /**
+     * Returns the number of draw calls the batch made for the entities last
+     * frame.
+     *
+     * @return The number of batch flushes.
+     */
+    public int getLastDrawCalls() {
+        return lastDrawCalls;
     }
 
 }
@@ -0,0 +1,258 @@
+package xyz.vec3d.game.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import xyz.vec3d.game.Settings;
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.utils.Profiler;
+import xyz.vec3d.game.utils.SpatialHashGrid;
+
+/**
+ * Created by Daron on 6/4/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Shared spatial index of every positioned entity in the engine. The index is
+ * rebuilt once per tick and should be added to the engine right after the
+ * {@link MovementSystem} so it reflects this tick's positions. Collision, melee
+ * sweeps and wave spawning all query this single structure instead of looping
+ * over every entity in the engine themselves.
+ *
+ * All query methods write into an array supplied by the caller so that callers
+ * can hold on to one array and reuse it every tick. Distances are measured
+ * between entity centers.
+ */
+public class SpatialIndexSystem extends EntitySystem {
+
+    /**
+     * Size of an index cell in world units.
+     */
+    private static final float CELL_SIZE = 1.0f;
+
+    private Family family;
+
+    private ImmutableArray<Entity> entities;
+
+    private SpatialHashGrid grid;
+
+    /**
+     * Scratch buffers used by the query methods.
+     */
+    private IntArray candidates = new IntArray();
+    private FloatArray distances = new FloatArray();
+
+    public SpatialIndexSystem() {
+        this.family = Family.all(PositionComponent.class).get();
+        this.grid = new SpatialHashGrid(CELL_SIZE, Settings.MAX_WORLD_WIDTH,
+                Settings.MAX_WORLD_HEIGHT);
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        entities = engine.getEntitiesFor(family);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        entities = null;
+    }
+
+    /**
+     * Rebuilds the index from the current entity positions.
+     *
+     * @param deltaTime The time in seconds since last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        long start = Profiler.start();
+        grid.rebuild(entities);
+        Profiler.stop(Profiler.SPATIAL_INDEX, start);
+    }
+
+    /**
+     * Collects the indices of all entities that could overlap the given area.
+     * The returned indices are only valid until the next update and are
+     * resolved with {@link #get(int)}. Entities are stored in cell order so
+     * comparing indices gives a stable order between two entities for the
+     * current tick.
+     *
+     * @param minX Left edge of the area.
+     * @param minY Bottom edge of the area.
+     * @param maxX Right edge of the area.
+     * @param maxY Top edge of the area.
+     * @param out Reusable array the indices are written into.
+     */
+    public void queryCandidates(float minX, float minY, float maxX, float maxY, IntArray out) {
+        grid.query(minX, minY, maxX, maxY, out);
+    }
+
+    public PocketRogueEntity get(int index) {
+        return grid.get(index);
+    }
+
+    public int size() {
+        return grid.size();
+    }
+
+    /**
+     * Returns the grid backing the index, for debug drawing.
+     */
+    public SpatialHashGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Finds all entities whose hit box overlaps the given area.
+     *
+     * @param minX Left edge of the area.
+     * @param minY Bottom edge of the area.
+     * @param maxX Right edge of the area.
+     * @param maxY Top edge of the area.
+     * @param out Reusable array the entities are written into. Cleared first.
+     */
+    public void queryArea(float minX, float minY, float maxX, float maxY,
+                          Array<PocketRogueEntity> out) {
+        out.clear();
+        grid.query(minX, minY, maxX, maxY, candidates);
+        for (int i = 0; i < candidates.size; i++) {
+            PocketRogueEntity entity = grid.get(candidates.get(i));
+            Vector2 position = entity.getPosition();
+            float size = entity.getSize();
+            if (position.x < maxX && position.x + size > minX
+                    && position.y < maxY && position.y + size > minY) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Finds all entities whose center lies within a radius of a point.
+     *
+     * @param x X coordinate of the point.
+     * @param y Y coordinate of the point.
+     * @param radius The max distance in world units.
+     * @param out Reusable array the entities are written into. Cleared first.
+     */
+    public void queryRadius(float x, float y, float radius, Array<PocketRogueEntity> out) {
+        out.clear();
+        grid.query(x - radius, y - radius, x + radius, y + radius, candidates);
+        float radius2 = radius * radius;
+        for (int i = 0; i < candidates.size; i++) {
+            PocketRogueEntity entity = grid.get(candidates.get(i));
+            if (centerDistance2(entity, x, y) <= radius2) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Finds all entities whose center lies within a cone. The cone starts at
+     * the given point, faces the given direction and spans halfAngle degrees
+     * to either side of it.
+     *
+     * @param x X coordinate of the cone's tip.
+     * @param y Y coordinate of the cone's tip.
+     * @param directionX X component of the direction the cone faces.
+     * @param directionY Y component of the direction the cone faces.
+     * @param radius Length of the cone in world units.
+     * @param halfAngle Half of the cone's spread in degrees.
+     * @param out Reusable array the entities are written into. Cleared first.
+     */
+    public void queryCone(float x, float y, float directionX, float directionY,
+                          float radius, float halfAngle, Array<PocketRogueEntity> out) {
+        out.clear();
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+        if (length == 0) {
+            return;
+        }
+        directionX /= length;
+        directionY /= length;
+        float cosHalfAngle = MathUtils.cosDeg(halfAngle);
+        grid.query(x - radius, y - radius, x + radius, y + radius, candidates);
+        float radius2 = radius * radius;
+        for (int i = 0; i < candidates.size; i++) {
+            PocketRogueEntity entity = grid.get(candidates.get(i));
+            float distance2 = centerDistance2(entity, x, y);
+            if (distance2 > radius2) {
+                continue;
+            }
+            if (distance2 == 0) {
+                out.add(entity);
+                continue;
+            }
+            Vector2 position = entity.getPosition();
+            float half = entity.getSize() / 2;
+            float dx = position.x + half - x;
+            float dy = position.y + half - y;
+            float cos = (dx * directionX + dy * directionY) / (float) Math.sqrt(distance2);
+            if (cos >= cosHalfAngle) {
+                out.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Finds up to k entities closest to a point, ordered nearest first.
+     *
+     * @param x X coordinate of the point.
+     * @param y Y coordinate of the point.
+     * @param k Max number of entities to return.
+     * @param maxRadius Entities further away than this are ignored.
+     * @param exclude Entity to leave out of the results, can be null.
+     * @param out Reusable array the entities are written into. Cleared first.
+     */
+    public void queryNearest(float x, float y, int k, float maxRadius,
+                             PocketRogueEntity exclude, Array<PocketRogueEntity> out) {
+        out.clear();
+        distances.clear();
+        if (k <= 0) {
+            return;
+        }
+        grid.query(x - maxRadius, y - maxRadius, x + maxRadius, y + maxRadius, candidates);
+        float radius2 = maxRadius * maxRadius;
+        for (int i = 0; i < candidates.size; i++) {
+            PocketRogueEntity entity = grid.get(candidates.get(i));
+            if (entity == exclude) {
+                continue;
+            }
+            float distance2 = centerDistance2(entity, x, y);
+            if (distance2 > radius2) {
+                continue;
+            }
+            if (out.size == k && distance2 >= distances.get(k - 1)) {
+                continue;
+            }
+            //Insertion into the sorted results, dropping the furthest if full.
+            int slot = out.size == k ? k - 1 : out.size;
+            if (out.size < k) {
+                out.add(entity);
+                distances.add(distance2);
+            }
+            while (slot > 0 && distances.get(slot - 1) > distance2) {
+                out.set(slot, out.get(slot - 1));
+                distances.set(slot, distances.get(slot - 1));
+                slot--;
+            }
+            out.set(slot, entity);
+            distances.set(slot, distance2);
+        }
+    }
+
+    private static float centerDistance2(PocketRogueEntity entity, float x, float y) {
+        Vector2 position = entity.getPosition();
+        float half = entity.getSize() / 2;
+        float dx = position.x + half - x;
+        float dy = position.y + half - y;
+        return dx * dx + dy * dy;
+    }
+}
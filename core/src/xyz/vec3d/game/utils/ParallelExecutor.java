@@ -0,0 +1,32 @@
+package xyz.vec3d.game.utils;
+
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Runs batches of tasks on several threads. The core project can't use
+ * java.util.concurrent.ForkJoinPool itself as it doesn't exist on the older
+ * Android versions the game supports, so each launcher hands its own
+ * implementation to {@link xyz.vec3d.game.PocketRogue}, or none if the
+ * platform can't run work in parallel.
+ */
+public interface ParallelExecutor extends Disposable {
+
+    /**
+     * Returns the number of threads tasks are spread over.
+     *
+     * @return The number of threads.
+     */
+    int getParallelism();
+
+    /**
+     * Runs tasks in parallel and waits for all of them to finish.
+     *
+     * @param tasks The tasks. May be reused between calls.
+     * @param count Number of tasks from the start of the array to run.
+     */
+    void invokeAll(Runnable[] tasks, int count);
+}
@@ -0,0 +1,199 @@
+package xyz.vec3d.game.utils;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Arrays;
+
+import xyz.vec3d.game.Settings;
+
+/**
+ * Created by Daron on 6/15/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Times the phases of a frame: each engine system, the combat update and the
+ * different parts of drawing. A phase is timed by surrounding it with
+ * {@link #start()} and {@link #stop(int, long)}. The time a phase takes
+ * during a frame, over every simulation step in it, is kept for the last
+ * {@link #FRAMES} frames in a preallocated ring buffer so the mean and
+ * percentiles can be read at any time without allocating.
+ *
+ * Nothing is timed unless {@link Settings#PROFILING} is set, in which case
+ * start and stop only check the flag.
+ */
+public class Profiler {
+
+    /**
+     * Phases that are timed.
+     */
+    public static final int LIFETIME = 0;
+    public static final int FIRING_COOLDOWN = 1;
+    public static final int NAVIGATION = 2;
+    public static final int MOVEMENT = 3;
+    public static final int SPATIAL_INDEX = 4;
+    public static final int COLLISION = 5;
+    public static final int COMBAT = 6;
+    public static final int DEATH_SWEEP = 7;
+    public static final int MAP = 8;
+    public static final int ENTITIES = 9;
+    public static final int DEBUG_SHAPES = 10;
+    public static final int UI = 11;
+    public static final int FRAME = 12;
+
+    public static final int PHASE_COUNT = 13;
+
+    private static final String[] PHASE_NAMES = {
+            "Lifetime", "Firing cooldown", "Navigation", "Movement", "Spatial index",
+            "Collision", "Combat", "Death sweep", "Map", "Entities", "Debug shapes",
+            "UI", "Frame"
+    };
+
+    /**
+     * Number of frames the statistics are taken over.
+     */
+    public static final int FRAMES = 300;
+
+    /**
+     * Returned by {@link #start()} while profiling is off.
+     */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final float NANOS_PER_MILLI = 1000000f;
+
+    /**
+     * Nanoseconds spent in each phase, by phase then frame.
+     */
+    private static final long[][] samples = new long[PHASE_COUNT][FRAMES];
+
+    /**
+     * Nanoseconds spent in each phase so far this frame.
+     */
+    private static final long[] current = new long[PHASE_COUNT];
+
+    /**
+     * Samples of one phase sorted for the percentiles.
+     */
+    private static final long[] sorted = new long[FRAMES];
+
+    /**
+     * Slot the next frame is written to.
+     */
+    private static int nextFrame;
+
+    /**
+     * Number of frames recorded, up to {@link #FRAMES}.
+     */
+    private static int frameCount;
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return The value to pass to {@link #stop(int, long)}.
+     */
+    public static long start() {
+        return Settings.PROFILING ? TimeUtils.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Stops timing a phase and adds the time to the phase's total for the
+     * frame. A phase may be timed several times in a frame.
+     *
+     * @param phase The phase, e.g. {@link #COLLISION}.
+     * @param start The value returned by {@link #start()}.
+     */
+    public static void stop(int phase, long start) {
+        if (start != NOT_TIMED) {
+            current[phase] += TimeUtils.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Records this frame's phase times into the ring buffers. Called once at
+     * the end of every frame.
+     */
+    public static void endFrame() {
+        if (!Settings.PROFILING) {
+            return;
+        }
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            samples[phase][nextFrame] = current[phase];
+            current[phase] = 0;
+        }
+        nextFrame = (nextFrame + 1) % FRAMES;
+        if (frameCount < FRAMES) {
+            frameCount++;
+        }
+    }
+
+    /**
+     * Returns the mean time a phase took per frame.
+     *
+     * @param phase The phase, e.g. {@link #COLLISION}.
+     *
+     * @return The mean in milliseconds, or 0 if no frames were recorded.
+     */
+    public static float getMean(int phase) {
+        if (frameCount == 0) {
+            return 0;
+        }
+        long total = 0;
+        long[] phaseSamples = samples[phase];
+        for (int i = 0; i < frameCount; i++) {
+            total += phaseSamples[i];
+        }
+        return total / (float) frameCount / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns the time per frame that a phase stayed under in a given share of
+     * the recorded frames.
+     *
+     * @param phase The phase, e.g. {@link #COLLISION}.
+     * @param percentile The share of frames from 0 to 1, e.g. 0.95.
+     *
+     * @return The time in milliseconds, or 0 if no frames were recorded.
+     */
+    public static float getPercentile(int phase, float percentile) {
+        if (frameCount == 0) {
+            return 0;
+        }
+        System.arraycopy(samples[phase], 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        int index = (int) Math.ceil(percentile * frameCount) - 1;
+        index = Math.max(0, Math.min(frameCount - 1, index));
+        return sorted[index] / NANOS_PER_MILLI;
+    }
+
+    public static float getP95(int phase) {
+        return getPercentile(phase, 0.95f);
+    }
+
+    public static float getP99(int phase) {
+        return getPercentile(phase, 0.99f);
+    }
+
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Returns the number of frames the statistics are currently taken over.
+     *
+     * @return The number of recorded frames, up to {@link #FRAMES}.
+     */
+    public static int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Throws away every recorded frame.
+     */
+    public static void reset() {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            Arrays.fill(samples[phase], 0);
+            current[phase] = 0;
+        }
+        nextFrame = 0;
+        frameCount = 0;
+    }
+}
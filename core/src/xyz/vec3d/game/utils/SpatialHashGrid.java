@@ -0,0 +1,208 @@
+package xyz.vec3d.game.utils;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+import xyz.vec3d.game.entities.PocketRogueEntity;
+
+/**
+ * Created by Daron on 6/3/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Uniform grid that buckets entities by the world tile their position falls in.
+ * The grid is rebuilt from scratch every tick with a counting sort so that all
+ * the entities in a cell sit next to each other in one flat array. Nothing is
+ * allocated once the backing arrays have grown to fit the number of entities
+ * in the world, which keeps the collision pass from creating garbage.
+ */
+public class SpatialHashGrid {
+
+    /**
+     * The largest hit box an entity is allowed to have in world units. Entities
+     * are bucketed by the bottom left corner of their hit box so every query is
+     * widened by this amount on the lower edges to pick up entities that start
+     * in a neighbouring cell but reach into the queried area.
+     */
+    public static final float MAX_ENTITY_SIZE = 1.0f;
+
+    /**
+     * Size of a single cell in world units.
+     */
+    private final float cellSize;
+
+    private final int columns;
+    private final int rows;
+
+    /**
+     * Offsets into {@link #entries} for every cell. Cell i owns the range
+     * [cellStart[i], cellStart[i + 1]).
+     */
+    private final int[] cellStart;
+
+    /**
+     * The cell each entity was placed in during the counting pass.
+     */
+    private int[] entityCells = new int[64];
+
+    /**
+     * Entities sorted by cell.
+     */
+    private PocketRogueEntity[] entries = new PocketRogueEntity[64];
+
+    /**
+     * Entities in the order they were handed to {@link #rebuild(ImmutableArray)}.
+     */
+    private PocketRogueEntity[] unsorted = new PocketRogueEntity[64];
+
+    /**
+     * Number of entities currently stored in the grid.
+     */
+    private int size;
+
+    /**
+     * Creates a new grid covering a world of the given size.
+     *
+     * @param cellSize Size of each cell in world units.
+     * @param worldWidth Width of the world in world units.
+     * @param worldHeight Height of the world in world units.
+     */
+    public SpatialHashGrid(float cellSize, int worldWidth, int worldHeight) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    /**
+     * Clears the grid and inserts every entity in the provided collection.
+     *
+     * @param entities The entities to bucket. All of them must be
+     *                 {@link PocketRogueEntity PocketRogueEntities} with a position.
+     */
+    public void rebuild(ImmutableArray<Entity> entities) {
+        size = entities.size();
+        ensureCapacity(size);
+        int[] cellStart = this.cellStart;
+        Arrays.fill(cellStart, 0);
+        //Count how many entities land in each cell.
+        for (int i = 0; i < size; i++) {
+            PocketRogueEntity entity = (PocketRogueEntity) entities.get(i);
+            Vector2 position = entity.getPosition();
+            int cell = cellIndex(cellX(position.x), cellY(position.y));
+            unsorted[i] = entity;
+            entityCells[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        //Turn the counts into offsets.
+        for (int cell = 0; cell < cellStart.length - 1; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        //Scatter the entities into their cells. cellStart is used as a write
+        //cursor here so it ends up shifted one cell forward afterwards.
+        for (int i = 0; i < size; i++) {
+            entries[cellStart[entityCells[i]]++] = unsorted[i];
+            unsorted[i] = null;
+        }
+        for (int cell = cellStart.length - 1; cell > 0; cell--) {
+            cellStart[cell] = cellStart[cell - 1];
+        }
+        cellStart[0] = 0;
+        //Drop stale references left over from a bigger previous tick.
+        for (int i = size; i < entries.length && entries[i] != null; i++) {
+            entries[i] = null;
+        }
+    }
+
+    /**
+     * Collects the indices of all entities whose hit box could overlap the
+     * given area. Callers still need to perform the actual overlap test on the
+     * returned entities.
+     *
+     * @param minX Left edge of the area in world units.
+     * @param minY Bottom edge of the area in world units.
+     * @param maxX Right edge of the area in world units.
+     * @param maxY Top edge of the area in world units.
+     * @param out Reusable array the indices are written into. It is cleared
+     *            before any results are added.
+     */
+    public void query(float minX, float minY, float maxX, float maxY, IntArray out) {
+        out.clear();
+        int startX = cellX(minX - MAX_ENTITY_SIZE);
+        int startY = cellY(minY - MAX_ENTITY_SIZE);
+        int endX = cellX(maxX);
+        int endY = cellY(maxY);
+        for (int y = startY; y <= endY; y++) {
+            for (int x = startX; x <= endX; x++) {
+                int cell = cellIndex(x, y);
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    out.add(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the entity stored at the given index. Indices are only valid
+     * until the next call to {@link #rebuild(ImmutableArray)}.
+     *
+     * @param index Index returned from a query.
+     *
+     * @return The entity at that index.
+     */
+    public PocketRogueEntity get(int index) {
+        return entries[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the number of entities bucketed into a cell.
+     *
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     *
+     * @return The number of entities, or 0 for cells outside the grid.
+     */
+    public int getCellCount(int x, int y) {
+        if (x < 0 || y < 0 || x >= columns || y >= rows) {
+            return 0;
+        }
+        int cell = cellIndex(x, y);
+        return cellStart[cell + 1] - cellStart[cell];
+    }
+
+    private int cellX(float x) {
+        int cell = (int) (x / cellSize);
+        return cell < 0 ? 0 : (cell >= columns ? columns - 1 : cell);
+    }
+
+    private int cellY(float y) {
+        int cell = (int) (y / cellSize);
+        return cell < 0 ? 0 : (cell >= rows ? rows - 1 : cell);
+    }
+
+    private int cellIndex(int cellX, int cellY) {
+        return cellY * columns + cellX;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (entries.length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, entries.length * 2);
+        entries = new PocketRogueEntity[newCapacity];
+        unsorted = new PocketRogueEntity[newCapacity];
+        entityCells = new int[newCapacity];
+    }
+}
@@ -1,19 +1,15 @@
 package xyz.vec3d.game.utils;
 
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.utils.JsonValue;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 import xyz.vec3d.game.PocketRogue;
@@ -40,6 +36,12 @@ public class Utils {
      */
     private static final Random random = new Random();
 
+    /**
+     * Icons already cut from the sprite sheets, indexed by item id. Grown as
+     * higher ids are asked for.
+     */
+    private static TextureRegion[] itemIcons = new TextureRegion[256];
+
     /**
      * Gets the x coordinate to draw an object at when being centered in a container
      * in which point 0,0 is the lower left corner of the object.
@@ -147,17 +149,19 @@ public class Utils {
      * @param entity The entity that the camera is being centered on.
      * @param mapWidth The width of the map in world units.
      * @param mapHeight The height of the map in world units.
+     * @param alpha How far the frame is between the entity's previous and
+     *              current simulated position.
      */
     public static void centerCamera(OrthographicCamera worldCamera, Entity entity, float mapWidth,
-                                    float mapHeight) {
+                                    float mapHeight, float alpha) {
         PositionComponent position = entity.getComponent(PositionComponent.class);
         if (position == null) {
             return;
         }
         float camViewportHalfX = worldCamera.viewportWidth / 2;
         float camViewportHalfY = worldCamera.viewportHeight / 2;
-        worldCamera.position.x = position.getPosition().x;
-        worldCamera.position.y = position.getPosition().y;
+        worldCamera.position.x = position.getInterpolatedX(alpha);
+        worldCamera.position.y = position.getInterpolatedY(alpha);
         //Clamp camera first on x, then on y.
         worldCamera.position.x = MathUtils.clamp(worldCamera.position.x,
                 camViewportHalfX, mapWidth - camViewportHalfX);
@@ -226,7 +230,30 @@ public class Utils {
         return getItemTexture(item.getId());
     }
 
+    /**
+     * Returns the icon of an item. The icon is cut from its sprite sheet the
+     * first time it is asked for and only looked up after that, so this is
+     * cheap enough to call while drawing every frame.
+     *
+     * @param itemId The ID of the item.
+     *
+     * @return The item's icon.
+     */
     private static TextureRegion getItemTexture(int itemId) {
+        if (itemId < itemIcons.length && itemIcons[itemId] != null) {
+            return itemIcons[itemId];
+        }
+        TextureRegion itemIcon = loadItemTexture(itemId);
+        if (itemIcon != null) {
+            if (itemId >= itemIcons.length) {
+                itemIcons = Arrays.copyOf(itemIcons, Math.max(itemId + 1, itemIcons.length * 2));
+            }
+            itemIcons[itemId] = itemIcon;
+        }
+        return itemIcon;
+    }
+
+    private static TextureRegion loadItemTexture(int itemId) {
         Definition definition = DefinitionLoader.getItemDefinition(itemId);
         int[] iconCoords = (int[]) definition.getProperty(DefinitionProperty.ICON);
         TextureRegion itemIcon = PocketRogue.getInstance().getSpriteSheet(itemId).
@@ -239,76 +266,7 @@ public class Utils {
     }
 
     public static TextureRegion getEntityTexture(String entityName) {
-        String name = entityName.toLowerCase() + ".png";
-        Texture texture = PocketRogue.getAsset(name);
-        if (texture == null) {
-            return null;
-        }
-        return new TextureRegion(texture, texture.getWidth(), texture.getHeight());
-    }
-
-    /**
-     * Determines if two specified entities are within range of each other. This
-     * check is done using the bottom left corners of the hit boxes which are what
-     * entity positions represent anyways. There is no reason to offset these
-     * positions so that they represent the center as when the distance is calculated
-     * the offsets end up cancelling themselves anyways. Makes use of Pythagoras'
-     * Theorem (a^2 + b^2 <= c^2) as opposed to using the built in Java math
-     * functions because those are technically slower.
-     *
-     * @param e1 The first entity in the comparison.
-     * @param e2 The second entity in the comparison.
-     * @param range The range we are checking for [0-range]
-     *
-     * @return True if the entities are within range.
-     */
-    private static boolean inRange(PocketRogueEntity e1, PocketRogueEntity e2, float range) {
-        Vector2 e1pos = e1.getPosition();
-        Vector2 e2pos = e2.getPosition();
-        return (e2pos.x - e1pos.x) * (e2pos.x - e1pos.x) +
-                (e2pos.y - e1pos.y) * (e2pos.y - e1pos.y)
-                <= range * range;
-    }
-
-    /**
-     * Iterates through a collection of entities and returns an array list
-     * containing all the entities that were found within a certain range.
-     *
-     * @param entityPool The collection of entities to perform the checks on.
-     * @param entityRelativeTo The entity that checks are being performed off of.
-     * @param range The max distance in world units allowed between entities.
-     *
-     * @return A new collection of all entities within range of another entity.
-     */
-    public static ArrayList<PocketRogueEntity> getEntitiesWithinRange(
-            ImmutableArray<Entity> entityPool, PocketRogueEntity entityRelativeTo,
-            float range) {
-        //Create a new collection
-        ArrayList<PocketRogueEntity> entitiesInRange = new ArrayList<>();
-        //Loop through the entities in the collection
-        for (Entity entity : entityPool) {
-            //Only look at entities that aren't the same as the provided one
-            if (!entity.equals(entityRelativeTo)) {
-                if (inRange((PocketRogueEntity) entity, entityRelativeTo, range)) {
-                    entitiesInRange.add((PocketRogueEntity) entity);
-                }
-            }
-        }
-        return entitiesInRange;
-    }
-
-    /**
-     * Determines if two entities are currently colliding with each other.
-     *
-     * @param e1 The first entity in the collision check.
-     * @param e2 The second entity in the collision check.
-     *
-     * @return True if the entities are overlapping.
-     */
-    public static boolean entitiesCollide(PocketRogueEntity e1, PocketRogueEntity e2) {
-        Rectangle e1r = new Rectangle(e1.getPosition().x, e1.getPosition().y, e1.getSize(), e1.getSize());
-        Rectangle e2r = new Rectangle(e2.getPosition().x, e2.getPosition().y, e1.getSize(), e1.getSize());
-        return e1r.overlaps(e2r);
+        return PocketRogue.getRegion(entityName.toLowerCase());
     }
 
     public static String modifyDisplayValue(Label label, Object newString) {
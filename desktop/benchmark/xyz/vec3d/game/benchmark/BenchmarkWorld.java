@@ -0,0 +1,68 @@
+package xyz.vec3d.game.benchmark;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.math.RandomXS128;
+
+import xyz.vec3d.game.Settings;
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.CollideComponent;
+import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.systems.CollisionSystem;
+import xyz.vec3d.game.systems.SpatialIndexSystem;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Builds an engine filled with colliders for the benchmarks. The world grows
+ * with the number of colliders so the density, and with it the number of
+ * pairs per collider, stays the same at every size. Colliders are spread over
+ * every collision layer so the layer masks are exercised too.
+ */
+class BenchmarkWorld {
+
+    /**
+     * Tiles of world per collider.
+     */
+    private static final int TILES_PER_COLLIDER = 4;
+
+    private static final CollideComponent.Layer[] LAYERS = {
+            CollideComponent.Layer.PLAYER, CollideComponent.Layer.ENEMY,
+            CollideComponent.Layer.PROJECTILE, CollideComponent.Layer.ITEM
+    };
+
+    final Engine engine;
+    final SpatialIndexSystem spatialIndex;
+    final CollisionSystem collisionSystem;
+
+    /**
+     * Creates a world and fills it with colliders at random positions. The
+     * same seed is used every time so runs can be compared.
+     *
+     * @param colliders Number of colliders to add.
+     * @param collisionSystem The collision system to add to the engine.
+     */
+    BenchmarkWorld(int colliders, CollisionSystem collisionSystem) {
+        int worldSize = (int) Math.ceil(Math.sqrt(colliders * TILES_PER_COLLIDER));
+        Settings.MAX_WORLD_WIDTH = worldSize;
+        Settings.MAX_WORLD_HEIGHT = worldSize;
+        this.engine = new Engine();
+        this.spatialIndex = new SpatialIndexSystem();
+        this.collisionSystem = collisionSystem;
+        engine.addSystem(spatialIndex);
+        engine.addSystem(collisionSystem);
+        RandomXS128 random = new RandomXS128(42);
+        for (int i = 0; i < colliders; i++) {
+            float x = random.nextFloat() * (worldSize - 1);
+            float y = random.nextFloat() * (worldSize - 1);
+            PocketRogueEntity entity = new PocketRogueEntity();
+            entity.add(new PositionComponent(x, y));
+            CollideComponent collideComponent = entity.getComponent(CollideComponent.class);
+            collideComponent.setLayer(LAYERS[i % LAYERS.length]);
+            collideComponent.setPosition(x, y);
+            engine.addEntity(entity);
+        }
+        spatialIndex.update(0);
+    }
+}
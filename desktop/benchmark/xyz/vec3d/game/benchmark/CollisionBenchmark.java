@@ -0,0 +1,69 @@
+package xyz.vec3d.game.benchmark;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.systems.CollisionSystem;
+import xyz.vec3d.game.utils.SpatialHashGrid;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Measures the two halves of a collision tick as the number of colliders
+ * grows: rebuilding the {@link SpatialHashGrid} and finding the colliding
+ * pairs with the {@link CollisionSystem}. Both should grow about linearly
+ * with the number of colliders.
+ *
+ * Run with {@code gradlew desktop:benchmark -Pbenchmarks=CollisionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int colliders;
+
+    private BenchmarkWorld world;
+    private SpatialHashGrid grid;
+    private ImmutableArray<Entity> entities;
+
+    @Setup
+    public void setUp() {
+        world = new BenchmarkWorld(colliders, new CollisionSystem());
+        grid = world.spatialIndex.getGrid();
+        entities = world.engine.getEntitiesFor(Family.all(PositionComponent.class).get());
+    }
+
+    @Benchmark
+    public int rebuild() {
+        grid.rebuild(entities);
+        return grid.size();
+    }
+
+    @Benchmark
+    public void findPairs() {
+        world.collisionSystem.update(0);
+    }
+}
@@ -0,0 +1,131 @@
+package xyz.vec3d.game.benchmark;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.gdx.math.RandomXS128;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import xyz.vec3d.game.entities.PocketRogueEntity;
+import xyz.vec3d.game.entities.components.PositionComponent;
+import xyz.vec3d.game.entities.components.VelocityComponent;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Compares looking components up with {@link PocketRogueEntity#getComponent(Class)},
+ * which goes through the component type map on every call, against a
+ * {@link ComponentMapper} and against the entity getters that systems call
+ * every tick. Each benchmark reads the position or velocity of every entity
+ * once.
+ *
+ * Run with {@code gradlew desktop:benchmark -Pbenchmarks=ComponentLookupBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentLookupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int entityCount;
+
+    private final ComponentMapper<PositionComponent> pm = ComponentMapper.getFor(PositionComponent.class);
+    private final ComponentMapper<VelocityComponent> vm = ComponentMapper.getFor(VelocityComponent.class);
+
+    private PocketRogueEntity[] entities;
+
+    @Setup
+    public void setUp() {
+        entities = new PocketRogueEntity[entityCount];
+        RandomXS128 random = new RandomXS128(42);
+        for (int i = 0; i < entityCount; i++) {
+            PocketRogueEntity entity = new PocketRogueEntity();
+            entity.add(new PositionComponent(random.nextFloat(), random.nextFloat()));
+            VelocityComponent velocityComponent = new VelocityComponent();
+            //Half the entities are moving.
+            if (random.nextBoolean()) {
+                velocityComponent.setVelocity(random.nextFloat(), random.nextFloat());
+            }
+            entity.add(velocityComponent);
+            entities[i] = entity;
+        }
+    }
+
+    @Benchmark
+    public float positionByClass() {
+        float sum = 0;
+        for (PocketRogueEntity entity : entities) {
+            sum += entity.getComponent(PositionComponent.class).getX();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float positionByMapper() {
+        float sum = 0;
+        for (PocketRogueEntity entity : entities) {
+            sum += pm.get(entity).getX();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float positionByGetter() {
+        float sum = 0;
+        for (PocketRogueEntity entity : entities) {
+            sum += entity.getPosition().x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int movingByClass() {
+        int moving = 0;
+        for (PocketRogueEntity entity : entities) {
+            VelocityComponent velocityComponent = entity.getComponent(VelocityComponent.class);
+            if (velocityComponent.getX() != 0 || velocityComponent.getY() != 0) {
+                moving++;
+            }
+        }
+        return moving;
+    }
+
+    @Benchmark
+    public int movingByMapper() {
+        int moving = 0;
+        for (PocketRogueEntity entity : entities) {
+            VelocityComponent velocityComponent = vm.get(entity);
+            if (velocityComponent.getX() != 0 || velocityComponent.getY() != 0) {
+                moving++;
+            }
+        }
+        return moving;
+    }
+
+    @Benchmark
+    public int movingByGetter() {
+        int moving = 0;
+        for (PocketRogueEntity entity : entities) {
+            if (entity.isMoving()) {
+                moving++;
+            }
+        }
+        return moving;
+    }
+}
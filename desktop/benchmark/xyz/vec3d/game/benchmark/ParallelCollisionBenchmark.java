@@ -0,0 +1,67 @@
+package xyz.vec3d.game.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import xyz.vec3d.game.Settings;
+import xyz.vec3d.game.desktop.ForkJoinExecutor;
+import xyz.vec3d.game.systems.CollisionSystem;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * Compares the serial and parallel pair search of the {@link CollisionSystem}.
+ * Below the system's parallel threshold both modes run serially, so only
+ * sizes above it are measured.
+ *
+ * Run with {@code gradlew desktop:benchmark -Pbenchmarks=ParallelCollisionBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelCollisionBenchmark {
+
+    @Param({"1000", "10000"})
+    public int colliders;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private ForkJoinExecutor executor;
+    private BenchmarkWorld world;
+
+    @Setup
+    public void setUp() {
+        executor = new ForkJoinExecutor();
+        world = new BenchmarkWorld(colliders, new CollisionSystem(executor));
+        Settings.PARALLEL_COLLISION = parallel;
+    }
+
+    @TearDown
+    public void tearDown() {
+        Settings.PARALLEL_COLLISION = false;
+        executor.dispose();
+    }
+
+    @Benchmark
+    public void findPairs() {
+        world.collisionSystem.update(0);
+    }
+}
@@ -23,7 +23,9 @@ public class DesktopLauncher {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
 		config.width = xyz.vec3d.game.Settings.WIDTH;
 		config.height = xyz.vec3d.game.Settings.HEIGHT;
-		new LwjglApplication(new PocketRogue(), config);
+		PocketRogue pocketRogue = new PocketRogue();
+		pocketRogue.setParallelExecutor(new ForkJoinExecutor());
+		new LwjglApplication(pocketRogue, config);
 	}
 
 }
@@ -0,0 +1,92 @@
+package xyz.vec3d.game.desktop;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import xyz.vec3d.game.utils.ParallelExecutor;
+
+/**
+ * Created by Daron on 6/16/2017.
+ * Copyright vec3d.xyz 2017
+ * All rights reserved.
+ *
+ * {@link ParallelExecutor} backed by a {@link ForkJoinPool}. Tasks are wrapped
+ * in actions that are kept and reused, so running a batch doesn't allocate
+ * once enough wrappers exist.
+ */
+public class ForkJoinExecutor implements ParallelExecutor {
+
+    private final ForkJoinPool pool = new ForkJoinPool();
+
+    private TaskAction[] actions = new TaskAction[0];
+
+    private final RootAction rootAction = new RootAction();
+
+    @Override
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void invokeAll(Runnable[] tasks, int count) {
+        if (actions.length < count) {
+            TaskAction[] grown = new TaskAction[count];
+            System.arraycopy(actions, 0, grown, 0, actions.length);
+            for (int i = actions.length; i < count; i++) {
+                grown[i] = new TaskAction();
+            }
+            actions = grown;
+        }
+        for (int i = 0; i < count; i++) {
+            actions[i].reinitialize();
+            actions[i].task = tasks[i];
+        }
+        rootAction.reinitialize();
+        rootAction.count = count;
+        pool.invoke(rootAction);
+        for (int i = 0; i < count; i++) {
+            actions[i].task = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        pool.shutdown();
+    }
+
+    /**
+     * Runs one task on the pool.
+     */
+    private static class TaskAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private Runnable task;
+
+        @Override
+        protected void compute() {
+            task.run();
+        }
+    }
+
+    /**
+     * Forks the actions of a batch and waits for all of them.
+     */
+    private class RootAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private int count;
+
+        @Override
+        protected void compute() {
+            for (int i = 1; i < count; i++) {
+                actions[i].fork();
+            }
+            actions[0].invoke();
+            for (int i = 1; i < count; i++) {
+                actions[i].join();
+            }
+        }
+    }
+}